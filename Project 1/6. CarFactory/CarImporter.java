@@ -4,8 +4,6 @@
 // CarImporter class
 // This class handles importing the csv file, and printing the contents
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class CarImporter 
@@ -15,31 +13,22 @@ public class CarImporter
     	// File path to choose from
         String filePath = "cars.csv";
 
-        // Buffered reader allows file to be read from
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) 
+        // CSV parser allows file to be read from
+        try (CsvParser parser = new CsvParser(filePath)) 
         {
-            String line;
-            boolean firstLine = true;
-
             // Skipping the header of the csv file
-            while ((line = reader.readLine()) != null) 
-            {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
+            parser.readHeader();
 
-                // Split the line at each comma
-                String[] data = line.split(",");
-                
+            while (parser.nextRow()) 
+            {
                 // Data length will always be 4
-                if (data.length == 4) 
+                if (parser.getFieldCount() == 4) 
                 {
-                	// Manually select each individual line between commas for each section in the data array
-                    String carType = data[0];
-                    int year = Integer.parseInt(data[1]);
-                    String color = data[2];
-                    int miles = Integer.parseInt(data[3]);
+                	// Select each field of the row; the numbers are parsed in place
+                    String carType = parser.getString(0);
+                    int year = parser.getInt(1);
+                    String color = parser.getString(2);
+                    int miles = parser.getInt(3);
 
                     // Create a car object and print its details
                     Car car = new Car(carType, year, color, miles);
@@ -0,0 +1,550 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.util.Arrays;
+
+//CsvParser
+//Reads CSV rows straight out of a reusable byte buffer. A row is only split into field boundaries, and numbers
+//and dates are parsed from the bytes in place, so reading a row of numbers creates no objects at all.
+//Strings are only built when getString is called (headers, text columns).
+//Handles quoted fields ("a,b" and "" for a quote inside quotes), \n and \r\n line endings, and skips blank lines.
+//The same class is copied into each project folder that reads CSV files.
+
+public class CsvParser implements Closeable
+{
+	// Starting sizes; both grow if a row needs more
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_FIELDS = 16;
+
+    // Exact powers of ten for the fast double path
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Where the bytes come from (exactly one of these is set)
+    private final InputStream stream;
+    private final ByteBuffer source;
+
+    // Bytes read so far: buffer[position, limit) hasn't been parsed yet
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private long bytesRead;
+
+    // Field boundaries of the current row (quoted fields exclude the quotes)
+    private int[] fieldStarts = new int[INITIAL_FIELDS];
+    private int[] fieldEnds = new int[INITIAL_FIELDS];
+    private boolean[] fieldQuoted = new boolean[INITIAL_FIELDS];
+    private int fieldCount;
+    private long rowNumber;
+
+    // Parse a file, reading it in chunks
+    public CsvParser(Path file) throws IOException
+    {
+        this(Files.newInputStream(file));
+    }
+
+    // Parse a file by name
+    public CsvParser(String fileName) throws IOException
+    {
+        this(Paths.get(fileName));
+    }
+
+    // Parse a stream, reading it in chunks
+    public CsvParser(InputStream stream)
+    {
+        this.stream = stream;
+        this.source = null;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    // Parse the remaining bytes of a buffer (heap, direct or memory-mapped)
+    public CsvParser(ByteBuffer source)
+    {
+        this.stream = null;
+        this.source = source.duplicate();
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    // Move to the next non-blank row. Returns false at the end of the input
+    public boolean nextRow() throws IOException
+    {
+        while (true)
+        {
+            if (position >= limit && !fill())
+                return false;
+
+            int end = scanRow(position);
+
+            // The row runs past the bytes we have, so read more and scan it again
+            if (end < 0)
+            {
+                fill();
+                continue;
+            }
+
+            position = end;
+
+            // Blank line: a single empty unquoted field
+            if (fieldCount == 1 && !fieldQuoted[0] && fieldStarts[0] == fieldEnds[0])
+                continue;
+
+            rowNumber++;
+            return true;
+        }
+    }
+
+    // Read the next row and return its fields as strings (for header rows)
+    public String[] readHeader() throws IOException
+    {
+        if (!nextRow())
+            return null;
+
+        String[] names = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++)
+            names[i] = getString(i).trim();
+
+        return names;
+    }
+
+    // Getters
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    // 1-based count of the rows returned so far (blank lines are not counted)
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    // Bytes of input used up by the rows returned so far (for progress bars)
+    public long getBytesParsed() {
+        return bytesRead - (limit - position);
+    }
+
+    // True if a field is missing or has no characters
+    public boolean isEmpty(int field)
+    {
+        return field >= fieldCount || fieldStarts[field] == fieldEnds[field];
+    }
+
+    // A field as a String (allocates, so keep it for text columns)
+    public String getString(int field)
+    {
+        checkField(field);
+
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        String text = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+
+        // Inside quotes a doubled quote stands for one quote
+        return fieldQuoted[field] ? text.replace("\"\"", "\"") : text;
+    }
+
+    // A field as a double, parsed from the bytes (surrounding spaces are ignored)
+    public double getDouble(int field)
+    {
+        checkField(field);
+
+        int start = skipSpaces(fieldStarts[field], fieldEnds[field]);
+        int end = trimSpaces(start, fieldEnds[field]);
+        int i = start;
+
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+'))
+            negative = buffer[i++] == '-';
+
+        // Up to 19 significant digits fit in a long
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+
+        while (i < end && isDigit(buffer[i]))
+        {
+            anyDigits = true;
+
+            if (mantissa != 0 || buffer[i] != '0')
+            {
+                if (digits < 19)
+                    mantissa = mantissa * 10 + (buffer[i] - '0');
+                else
+                    exponent++;
+
+                digits++;
+            }
+
+            i++;
+        }
+
+        if (i < end && buffer[i] == '.')
+        {
+            i++;
+
+            while (i < end && isDigit(buffer[i]))
+            {
+                anyDigits = true;
+
+                if (mantissa != 0 || buffer[i] != '0')
+                {
+                    if (digits < 19)
+                    {
+                        mantissa = mantissa * 10 + (buffer[i] - '0');
+                        exponent--;
+                    }
+
+                    digits++;
+                }
+                else
+                    exponent--;
+
+                i++;
+            }
+        }
+
+        if (anyDigits && i < end && (buffer[i] == 'e' || buffer[i] == 'E'))
+        {
+            int mark = i++;
+            boolean negativeExponent = false;
+
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+'))
+                negativeExponent = buffer[i++] == '-';
+
+            int value = 0;
+            boolean exponentDigits = false;
+
+            while (i < end && isDigit(buffer[i]))
+            {
+                value = Math.min(value * 10 + (buffer[i++] - '0'), 100_000);
+                exponentDigits = true;
+            }
+
+            if (!exponentDigits)
+                i = mark;
+            else
+                exponent += negativeExponent ? -value : value;
+        }
+
+        // Exact when the mantissa and the power of ten are both exact doubles (Clinger's fast path)
+        if (anyDigits && i == end && digits <= 15 && Math.abs(exponent) < POWERS_OF_TEN.length)
+        {
+            double value = (exponent >= 0) ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+
+        // Long mantissas, huge exponents, NaN, Infinity and bad input go through the JDK
+        return Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    // A field as a long (surrounding spaces are ignored)
+    public long getLong(int field)
+    {
+        checkField(field);
+
+        int start = skipSpaces(fieldStarts[field], fieldEnds[field]);
+        int end = trimSpaces(start, fieldEnds[field]);
+        int i = start;
+
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+'))
+            negative = buffer[i++] == '-';
+
+        if (i == end)
+            throw numberError(field);
+
+        // Accumulate negatively so Long.MIN_VALUE fits
+        long result = 0;
+        while (i < end)
+        {
+            if (!isDigit(buffer[i]))
+                throw numberError(field);
+
+            int digit = buffer[i++] - '0';
+
+            if (result < (Long.MIN_VALUE + digit) / 10)
+                throw numberError(field);
+
+            result = result * 10 - digit;
+        }
+
+        if (!negative && result == Long.MIN_VALUE)
+            throw numberError(field);
+
+        return negative ? result : -result;
+    }
+
+    // A field as an int
+    public int getInt(int field)
+    {
+        long value = getLong(field);
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw numberError(field);
+
+        return (int) value;
+    }
+
+    // A yyyy-MM-dd date field as days since 1970-01-01 (same as LocalDate.toEpochDay)
+    public int getEpochDay(int field)
+    {
+        checkField(field);
+
+        int start = skipSpaces(fieldStarts[field], fieldEnds[field]);
+        int end = trimSpaces(start, fieldEnds[field]);
+
+        if (end - start != 10 || buffer[start + 4] != '-' || buffer[start + 7] != '-')
+            throw dateError(field);
+
+        int year = digits(start, 4, field);
+        int month = digits(start + 5, 2, field);
+        int day = digits(start + 8, 2, field);
+
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+            throw dateError(field);
+
+        // Days from the civil calendar, counting years from March so leap days fall at the end
+        int y = (month <= 2) ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (stream != null)
+            stream.close();
+    }
+
+    // Find the field boundaries of the row starting at from. Returns the index just past the row,
+    // or -1 if the row is not complete yet and more input may follow
+    private int scanRow(int from)
+    {
+        fieldCount = 0;
+        int i = from;
+
+        while (true)
+        {
+            int start;
+            int end;
+            boolean quoted = false;
+
+            if (i < limit && buffer[i] == '"')
+            {
+                quoted = true;
+                start = ++i;
+
+                // Find the closing quote, stepping over doubled quotes
+                while (true)
+                {
+                    if (i >= limit)
+                        return endOfInput ? finishRow(start, limit, true, limit) : -1;
+
+                    if (buffer[i] == '"')
+                    {
+                        if (i + 1 >= limit && !endOfInput)
+                            return -1;
+
+                        if (i + 1 < limit && buffer[i + 1] == '"')
+                        {
+                            i += 2;
+                            continue;
+                        }
+
+                        break;
+                    }
+
+                    i++;
+                }
+
+                end = i++;
+
+                // Ignore anything between the closing quote and the next separator
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n' && buffer[i] != '\r')
+                    i++;
+            }
+            else
+            {
+                start = i;
+
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n' && buffer[i] != '\r')
+                    i++;
+
+                end = i;
+            }
+
+            if (i >= limit)
+                return endOfInput ? finishRow(start, end, quoted, limit) : -1;
+
+            addField(start, end, quoted);
+
+            if (buffer[i] == ',')
+            {
+                i++;
+                continue;
+            }
+
+            // End of the row: \n, \r\n or a lone \r
+            if (buffer[i] == '\r')
+            {
+                if (i + 1 >= limit && !endOfInput)
+                    return -1;
+
+                if (i + 1 < limit && buffer[i + 1] == '\n')
+                    i++;
+            }
+
+            return i + 1;
+        }
+    }
+
+    // Record the last field of a row that ends with the input
+    private int finishRow(int start, int end, boolean quoted, int rowEnd)
+    {
+        addField(start, end, quoted);
+        return rowEnd;
+    }
+
+    private void addField(int start, int end, boolean quoted)
+    {
+        if (fieldCount == fieldStarts.length)
+        {
+            int newLength = fieldStarts.length * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, newLength);
+            fieldEnds = Arrays.copyOf(fieldEnds, newLength);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, newLength);
+        }
+
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    // Keep the unparsed bytes, read more after them and return false once nothing more will come
+    private boolean fill() throws IOException
+    {
+        if (endOfInput)
+            return false;
+
+        // Slide the unfinished row to the front, or grow the buffer if the row fills all of it
+        int pending = limit - position;
+
+        if (position > 0)
+            System.arraycopy(buffer, position, buffer, 0, pending);
+        else if (pending == buffer.length)
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+        position = 0;
+        limit = pending;
+
+        int read = read(buffer, limit, buffer.length - limit);
+
+        if (read < 0)
+        {
+            endOfInput = true;
+            return limit > 0;
+        }
+
+        limit += read;
+        bytesRead += read;
+        return true;
+    }
+
+    // Read from whichever source this parser was given
+    private int read(byte[] target, int offset, int length) throws IOException
+    {
+        if (stream != null)
+        {
+            int read;
+
+            // Streams may return 0 bytes; keep going until something arrives or the stream ends
+            do
+            {
+                read = stream.read(target, offset, length);
+            } while (read == 0);
+
+            return read;
+        }
+
+        int available = Math.min(length, source.remaining());
+        if (available == 0)
+            return -1;
+
+        source.get(target, offset, available);
+        return available;
+    }
+
+    private void checkField(int field)
+    {
+        if (field < 0 || field >= fieldCount)
+            throw new IndexOutOfBoundsException("Row " + rowNumber + " has no field " + field);
+    }
+
+    private int skipSpaces(int start, int end)
+    {
+        while (start < end && buffer[start] == ' ')
+            start++;
+
+        return start;
+    }
+
+    private int trimSpaces(int start, int end)
+    {
+        while (end > start && buffer[end - 1] == ' ')
+            end--;
+
+        return end;
+    }
+
+    // Fixed-width unsigned number inside a date
+    private int digits(int start, int count, int field)
+    {
+        int value = 0;
+
+        for (int i = start; i < start + count; i++)
+        {
+            if (!isDigit(buffer[i]))
+                throw dateError(field);
+
+            value = value * 10 + (buffer[i] - '0');
+        }
+
+        return value;
+    }
+
+    private static boolean isDigit(byte b)
+    {
+        return b >= '0' && b <= '9';
+    }
+
+    private static int daysInMonth(int year, int month)
+    {
+        if (month == 2)
+            return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    private NumberFormatException numberError(int field)
+    {
+        return new NumberFormatException("Row " + rowNumber + ", field " + field + ": not a number: \"" + getString(field) + "\"");
+    }
+
+    private DateTimeException dateError(int field)
+    {
+        return new DateTimeException("Row " + rowNumber + ", field " + field + ": not a yyyy-MM-dd date: \"" + getString(field) + "\"");
+    }
+}
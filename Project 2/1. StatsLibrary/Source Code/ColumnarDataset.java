@@ -0,0 +1,366 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+//ColumnarDataset
+//A memory-mapped binary dataset with one column of little-endian doubles per variable.
+//Each column is mapped straight from the file and handed out as a DoubleBuffer, so StatsLibrary's
+//buffer methods read gigabyte files with no parsing and no heap copy. CSV files (wdbc.data, AAPL.csv, ...)
+//are converted to this format once with convertCsv or from the command line:
+//    java ColumnarDataset input.csv output.bin
+//
+//File layout (all little-endian):
+//    int    magic "SLCD"
+//    int    format version
+//    long   row count
+//    int    column count
+//    per column: unsigned short name length, then the UTF-8 name bytes
+//    zero padding up to a multiple of 8 bytes
+//    column 0 (row count doubles), column 1, ...
+//In the CSV conversion, dates (yyyy-MM-dd) become epoch days and other text columns (like the wdbc
+//diagnosis) become category codes 0, 1, 2, ... in order of first appearance. Missing numbers become NaN.
+
+public final class ColumnarDataset
+{
+	// "SLCD" read as a little-endian int
+    private static final int MAGIC = 0x44434C53;
+    private static final int VERSION = 1;
+
+    // One mapping can cover at most Integer.MAX_VALUE bytes, so that limits the rows per column
+    private static final long MAX_ROWS = Integer.MAX_VALUE / Double.BYTES;
+
+    // How a CSV column is turned into doubles
+    private static final int NUMBER = 0;
+    private static final int DATE = 1;
+    private static final int CATEGORY = 2;
+
+    private final long rowCount;
+    private final String[] columnNames;
+    private final DoubleBuffer[] columns;
+
+    private ColumnarDataset(long rowCount, String[] columnNames, DoubleBuffer[] columns)
+    {
+        this.rowCount = rowCount;
+        this.columnNames = columnNames;
+        this.columns = columns;
+    }
+
+    // Map every column of a binary dataset file. The mappings stay valid after the file is closed
+    public static ColumnarDataset open(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            // The header is small, so read a generous chunk and grow if the names don't fit
+            ByteBuffer header = readHeader(channel, 4096);
+
+            if (header.remaining() < Integer.BYTES * 3 + Long.BYTES || header.getInt() != MAGIC)
+                throw new IOException("Not a columnar dataset file: " + file);
+
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported dataset version " + version + ": " + file);
+
+            long rows = header.getLong();
+            int columnCount = header.getInt();
+
+            if (rows < 0 || rows > MAX_ROWS || columnCount < 0)
+                throw new IOException("Corrupt dataset header: " + file);
+
+            String[] names = new String[columnCount];
+            for (int c = 0; c < columnCount; c++)
+            {
+                if (header.remaining() < Short.BYTES)
+                    header = readHeader(channel, header.capacity() * 2L).position(header.position());
+
+                int length = Short.toUnsignedInt(header.getShort());
+
+                if (header.remaining() < length)
+                    header = readHeader(channel, header.capacity() * 2L + length).position(header.position());
+
+                byte[] bytes = new byte[length];
+                header.get(bytes);
+                names[c] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            long dataStart = align(header.position());
+            long columnBytes = rows * Double.BYTES;
+
+            if (channel.size() < dataStart + columnBytes * columnCount)
+                throw new IOException("Dataset file is truncated: " + file);
+
+            DoubleBuffer[] columns = new DoubleBuffer[columnCount];
+            for (int c = 0; c < columnCount; c++)
+            {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + c * columnBytes, columnBytes);
+                columns[c] = mapped.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+
+            return new ColumnarDataset(rows, names, columns);
+        }
+    }
+
+    // Convert a CSV file, detecting the header (a first row with no numeric field is a header)
+    public static void convertCsv(Path csv, Path output) throws IOException
+    {
+        boolean hasHeader = false;
+
+        try (CsvParser parser = new CsvParser(csv))
+        {
+            if (parser.nextRow())
+            {
+                hasHeader = true;
+                for (int c = 0; c < parser.getFieldCount(); c++)
+                    if (isNumber(parser, c))
+                        hasHeader = false;
+            }
+        }
+
+        convertCsv(csv, output, hasHeader);
+    }
+
+    // Convert a CSV file into a binary dataset file
+    public static void convertCsv(Path csv, Path output, boolean hasHeader) throws IOException
+    {
+        // First pass: count rows and columns, take the names from the header and the column kinds from the first row
+        String[] names = null;
+        int[] kinds = null;
+        long rows = 0;
+
+        try (CsvParser parser = new CsvParser(csv))
+        {
+            if (hasHeader)
+                names = parser.readHeader();
+
+            while (parser.nextRow())
+            {
+                if (kinds == null)
+                {
+                    kinds = new int[parser.getFieldCount()];
+                    for (int c = 0; c < kinds.length; c++)
+                        kinds[c] = kindOf(parser, c);
+                }
+
+                rows++;
+            }
+        }
+
+        int columnCount = (kinds != null) ? kinds.length : (names != null ? names.length : 0);
+
+        if (kinds == null)
+            kinds = new int[columnCount];
+
+        if (names == null || names.length != columnCount)
+        {
+            names = new String[columnCount];
+            for (int c = 0; c < columnCount; c++)
+                names[c] = "Column " + (c + 1);
+        }
+
+        if (rows > MAX_ROWS)
+            throw new IOException("Too many rows for one column mapping: " + rows);
+
+        // Second pass: parse each row straight into the mapped columns of the output file
+        ByteBuffer header = buildHeader(rows, names);
+        long columnBytes = rows * Double.BYTES;
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             CsvParser parser = new CsvParser(csv))
+        {
+            while (header.hasRemaining())
+                channel.write(header);
+
+            MappedByteBuffer[] mapped = new MappedByteBuffer[columnCount];
+            for (int c = 0; c < columnCount; c++)
+            {
+                mapped[c] = channel.map(FileChannel.MapMode.READ_WRITE, header.limit() + c * columnBytes, columnBytes);
+                mapped[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            // Category codes for the text columns (the only fields that become Strings)
+            ArrayList<HashMap<String, Integer>> categories = new ArrayList<>();
+            for (int c = 0; c < columnCount; c++)
+                categories.add(new HashMap<>());
+
+            if (hasHeader)
+                parser.readHeader();
+
+            while (parser.nextRow())
+            {
+                for (int c = 0; c < columnCount; c++)
+                    mapped[c].putDouble(toDouble(parser, c, kinds[c], categories.get(c)));
+            }
+
+            for (MappedByteBuffer column : mapped)
+                column.force();
+        }
+    }
+
+    // Getters
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    // Index of a named column, or -1 if there is none
+    public int findColumn(String name)
+    {
+        for (int c = 0; c < columnNames.length; c++)
+            if (columnNames[c].equals(name))
+                return c;
+
+        return -1;
+    }
+
+    // Zero-copy view of a column (each call gets its own position and limit)
+    public DoubleBuffer getColumn(int column)
+    {
+        return columns[column].duplicate();
+    }
+
+    // Zero-copy view of a named column
+    public DoubleBuffer getColumn(String name)
+    {
+        int column = findColumn(name);
+
+        if (column < 0)
+            throw new IllegalArgumentException("No column named " + name);
+
+        return getColumn(column);
+    }
+
+    // Copy a column onto the heap, for the methods that need a double[]
+    public double[] toArray(int column)
+    {
+        double[] result = new double[(int) rowCount];
+        columns[column].duplicate().get(result);
+        return result;
+    }
+
+    // Convert a CSV file from the command line
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.out.println("Usage: java ColumnarDataset input.csv output.bin");
+            return;
+        }
+
+        convertCsv(Paths.get(args[0]), Paths.get(args[1]));
+
+        ColumnarDataset dataset = open(Paths.get(args[1]));
+        System.out.println("Wrote " + dataset.getRowCount() + " rows x " + dataset.getColumnCount() + " columns to " + args[1]);
+    }
+
+    // Read the first bytes of the file into a little-endian buffer
+    private static ByteBuffer readHeader(FileChannel channel, long size) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate((int) Math.min(size, channel.size())).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (header.hasRemaining())
+        {
+            if (channel.read(header, header.position()) < 0)
+                break;
+        }
+
+        return header.flip();
+    }
+
+    // Header bytes for the given shape, already padded to where the column data starts
+    private static ByteBuffer buildHeader(long rows, String[] names)
+    {
+        byte[][] encoded = new byte[names.length][];
+        int size = Integer.BYTES * 2 + Long.BYTES + Integer.BYTES;
+
+        for (int c = 0; c < names.length; c++)
+        {
+            encoded[c] = names[c].getBytes(StandardCharsets.UTF_8);
+
+            if (encoded[c].length > 0xFFFF)
+                throw new IllegalArgumentException("Column name too long: " + names[c]);
+
+            size += Short.BYTES + encoded[c].length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate((int) align(size)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(rows).putInt(names.length);
+
+        for (byte[] name : encoded)
+            header.putShort((short) name.length).put(name);
+
+        // The rest of the buffer is already zero, which is the padding
+        return header.position(header.capacity()).flip();
+    }
+
+    // Round up to a multiple of 8 so the doubles are aligned in the file
+    private static long align(long position)
+    {
+        return (position + 7) & ~7L;
+    }
+
+    // Pick how a column is converted from its first value
+    private static int kindOf(CsvParser parser, int column)
+    {
+        if (parser.isEmpty(column) || isNumber(parser, column))
+            return NUMBER;
+
+        return isDate(parser, column) ? DATE : CATEGORY;
+    }
+
+    // Convert one CSV field according to its column kind
+    private static double toDouble(CsvParser parser, int column, int kind, HashMap<String, Integer> codes)
+    {
+        if (parser.isEmpty(column))
+            return Double.NaN;
+
+        if (kind == CATEGORY)
+            return codes.computeIfAbsent(parser.getString(column).trim(), key -> codes.size());
+
+        try
+        {
+            return (kind == DATE) ? parser.getEpochDay(column) : parser.getDouble(column);
+        } catch (NumberFormatException | DateTimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isNumber(CsvParser parser, int column)
+    {
+        try
+        {
+            parser.getDouble(column);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDate(CsvParser parser, int column)
+    {
+        try
+        {
+            parser.getEpochDay(column);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+}
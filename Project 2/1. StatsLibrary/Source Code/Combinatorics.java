@@ -0,0 +1,336 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+//Combinatorics
+//Factorials, permutations and combinations without computing n! when it isn't needed.
+//Keeps a lazily grown, thread-safe cache of factorials and log-factorials, uses an exact long
+//fast path whenever the result fits, and falls back to prime factorization / product trees for big results.
+
+public final class Combinatorics
+{
+	// Largest n whose factorial is kept in the BigInteger cache (bigger ones are built from the last entry)
+    private static final int MAX_CACHED_FACTORIAL = 1024;
+
+    // Largest n whose log-factorial is kept in the cache (bigger ones use Stirling's series)
+    private static final int MAX_CACHED_LOG_FACTORIAL = 1 << 20;
+
+    // Cached log-factorials below this n are summed term by term, the rest come from Stirling's series
+    // (accurate to an ulp up there, and the same formula used past the cache, so there's no jump at its end)
+    private static final int MIN_STIRLING_LOG_FACTORIAL = 256;
+
+    // Above this n the prime sieve is too big, so combinations use the multiplicative product instead
+    private static final int MAX_SIEVE = 1 << 24;
+
+    // 20! is the largest factorial that fits in a long
+    private static final long[] LONG_FACTORIALS = new long[21];
+
+    // Caches are replaced (never changed in place) once grown, so readers only need the volatile read
+    private static volatile BigInteger[] factorialCache = { BigInteger.ONE };
+    private static volatile double[] logFactorialCache = { 0.0 };
+
+    static
+    {
+        LONG_FACTORIALS[0] = 1;
+        for (int i = 1; i < LONG_FACTORIALS.length; i++)
+            LONG_FACTORIALS[i] = LONG_FACTORIALS[i - 1] * i;
+    }
+
+    // Static helper class, no objects needed
+    private Combinatorics()
+    {
+    }
+
+    // n! as a BigInteger
+    public static BigInteger factorial(int n)
+    {
+        if (n < 0)
+            throw new IllegalArgumentException("Factorial bounds invalid");
+
+        if (n < LONG_FACTORIALS.length)
+            return BigInteger.valueOf(LONG_FACTORIALS[n]);
+
+        if (n <= MAX_CACHED_FACTORIAL)
+            return cachedFactorials(n)[n];
+
+        // Past the cache: multiply the rest of the range onto the largest cached factorial
+        BigInteger base = cachedFactorials(MAX_CACHED_FACTORIAL)[MAX_CACHED_FACTORIAL];
+        return base.multiply(product(MAX_CACHED_FACTORIAL + 1L, n));
+    }
+
+    // ln(n!)
+    public static double logFactorial(int n)
+    {
+        if (n < 0)
+            throw new IllegalArgumentException("Factorial bounds invalid");
+
+        if (n < LONG_FACTORIALS.length)
+            return Math.log(LONG_FACTORIALS[n]);
+
+        if (n <= MAX_CACHED_LOG_FACTORIAL)
+        {
+            double[] cache = logFactorialCache;
+
+            if (n >= cache.length)
+                cache = growLogFactorials(n);
+
+            return cache[n];
+        }
+
+        return stirlingLogFactorial(n);
+    }
+
+    // ln(n!) for any non-negative real n, using Stirling's series with correction terms
+    public static double stirlingLogFactorial(double n)
+    {
+        if (n < 0)
+            throw new IllegalArgumentException("Factorial bounds invalid");
+
+        // The series is only accurate for larger n, so shift small arguments up and divide back out
+        double shift = 0.0;
+        while (n < 15)
+        {
+            n += 1;
+            shift += Math.log(n);
+        }
+
+        double inv = 1.0 / n;
+        double inv2 = inv * inv;
+        double series = inv * (1.0 / 12 - inv2 * (1.0 / 360 - inv2 * (1.0 / 1260 - inv2 * (1.0 / 1680))));
+
+        return n * Math.log(n) - n + 0.5 * Math.log(2 * Math.PI * n) + series - shift;
+    }
+
+    // nPr = n! / (n - r)!
+    public static BigInteger permutation(int n, int r)
+    {
+        if (n < 0 || r < 0 || n < r)
+            throw new IllegalArgumentException("Permutation bounds invalid");
+
+        long exact = permutationLong(n, r);
+        if (exact >= 0)
+            return BigInteger.valueOf(exact);
+
+        // Only the top r factors of n! are needed
+        return product(n - r + 1L, n);
+    }
+
+    // nPr as a long, or -1 if it does not fit
+    public static long permutationLong(int n, int r)
+    {
+        if (n < 0 || r < 0 || n < r)
+            throw new IllegalArgumentException("Permutation bounds invalid");
+
+        long result = 1;
+
+        try
+        {
+            for (long i = n - r + 1L; i <= n; i++)
+                result = Math.multiplyExact(result, i);
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+
+        return result;
+    }
+
+    // nCr = n! / (r! * (n - r)!)
+    public static BigInteger combination(int n, int r)
+    {
+        if (n < 0 || r < 0 || n < r)
+            throw new IllegalArgumentException("Combination bounds invalid");
+
+        long exact = combinationLong(n, r);
+        if (exact >= 0)
+            return BigInteger.valueOf(exact);
+
+        r = Math.min(r, n - r);
+
+        if (n <= MAX_SIEVE)
+            return combinationByPrimes(n, r);
+
+        // Very large n: (n - r + 1) ... n / r!
+        return product(n - r + 1L, n).divide(factorial(r));
+    }
+
+    // nCr as a long, or -1 if it does not fit
+    public static long combinationLong(int n, int r)
+    {
+        if (n < 0 || r < 0 || n < r)
+            throw new IllegalArgumentException("Combination bounds invalid");
+
+        r = Math.min(r, n - r);
+        long result = 1;
+
+        // After step i result is C(n - r + i, i), so every division is exact. Dividing out the
+        // gcd first keeps the intermediate value as small as the answer allows
+        try
+        {
+            for (int i = 1; i <= r; i++)
+            {
+                long factor = n - r + (long) i;
+                long g = gcd(result, i);
+                result = Math.multiplyExact(result / g, factor / (i / g));
+            }
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+
+        return result;
+    }
+
+    // ln(nCr), cheap for any n
+    public static double logCombination(int n, int r)
+    {
+        if (n < 0 || r < 0 || n < r)
+            throw new IllegalArgumentException("Combination bounds invalid");
+
+        return logFactorial(n) - logFactorial(r) - logFactorial(n - r);
+    }
+
+    // nCr from its prime factorization (Legendre's formula), multiplied with a product tree
+    private static BigInteger combinationByPrimes(int n, int r)
+    {
+        boolean[] composite = new boolean[n + 1];
+        ArrayList<BigInteger> powers = new ArrayList<>();
+        long pending = 1;
+
+        for (int p = 2; p <= n; p++)
+        {
+            if (composite[p])
+                continue;
+
+            for (long m = (long) p * p; m <= n; m += p)
+                composite[(int) m] = true;
+
+            // Exponent of p in n! / (r! (n - r)!)
+            int exponent = 0;
+            for (long pk = p; pk <= n; pk *= p)
+                exponent += (int) (n / pk - r / pk - (n - r) / pk);
+
+            // Pack prime powers into longs while they fit, then hand them to the product tree
+            for (int e = 0; e < exponent; e++)
+            {
+                if (pending > Long.MAX_VALUE / p)
+                {
+                    powers.add(BigInteger.valueOf(pending));
+                    pending = 1;
+                }
+
+                pending *= p;
+            }
+        }
+
+        powers.add(BigInteger.valueOf(pending));
+        return product(powers, 0, powers.size());
+    }
+
+    // Product of every integer in [lo, hi] using binary splitting
+    private static BigInteger product(long lo, long hi)
+    {
+        if (lo > hi)
+            return BigInteger.ONE;
+
+        // Small ranges are multiplied in a long while they fit
+        if (hi - lo < 8)
+        {
+            BigInteger result = BigInteger.ONE;
+            long partial = 1;
+
+            for (long i = lo; i <= hi; i++)
+            {
+                if (partial > Long.MAX_VALUE / i)
+                {
+                    result = result.multiply(BigInteger.valueOf(partial));
+                    partial = 1;
+                }
+
+                partial *= i;
+            }
+
+            return result.multiply(BigInteger.valueOf(partial));
+        }
+
+        long mid = (lo + hi) >>> 1;
+        return product(lo, mid).multiply(product(mid + 1, hi));
+    }
+
+    // Product of values[from, to) using binary splitting
+    private static BigInteger product(ArrayList<BigInteger> values, int from, int to)
+    {
+        if (to - from == 1)
+            return values.get(from);
+
+        int mid = (from + to) >>> 1;
+        return product(values, from, mid).multiply(product(values, mid, to));
+    }
+
+    // Grow the factorial cache to cover n (n <= MAX_CACHED_FACTORIAL)
+    private static BigInteger[] cachedFactorials(int n)
+    {
+        BigInteger[] cache = factorialCache;
+        if (n < cache.length)
+            return cache;
+
+        synchronized (Combinatorics.class)
+        {
+            cache = factorialCache;
+            if (n < cache.length)
+                return cache;
+
+            // Grow geometrically so repeated calls don't copy the cache every time
+            int newLength = Math.min(MAX_CACHED_FACTORIAL + 1, Math.max(n + 1, cache.length * 2));
+            BigInteger[] grown = new BigInteger[newLength];
+            System.arraycopy(cache, 0, grown, 0, cache.length);
+
+            for (int i = cache.length; i < newLength; i++)
+                grown[i] = grown[i - 1].multiply(BigInteger.valueOf(i));
+
+            factorialCache = grown;
+            return grown;
+        }
+    }
+
+    // Grow the log-factorial cache to cover n (n <= MAX_CACHED_LOG_FACTORIAL)
+    private static double[] growLogFactorials(int n)
+    {
+        synchronized (Combinatorics.class)
+        {
+            double[] cache = logFactorialCache;
+            if (n < cache.length)
+                return cache;
+
+            int newLength = Math.min(MAX_CACHED_LOG_FACTORIAL + 1, Math.max(n + 1, cache.length * 2));
+            double[] grown = new double[newLength];
+            System.arraycopy(cache, 0, grown, 0, cache.length);
+
+            // Small n: compensated sum of ln(k), started again from 1 so no rounding carries over
+            CompensatedSum sum = new CompensatedSum();
+            int summed = Math.min(newLength, MIN_STIRLING_LOG_FACTORIAL);
+            for (int i = 2; i < summed; i++)
+            {
+                sum.add(Math.log(i));
+                if (i >= cache.length)
+                    grown[i] = sum.getSum();
+            }
+
+            for (int i = Math.max(cache.length, summed); i < newLength; i++)
+                grown[i] = stirlingLogFactorial(i);
+
+            logFactorialCache = grown;
+            return grown;
+        }
+    }
+
+    // Greatest common divisor of two non-negative longs
+    private static long gcd(long a, long b)
+    {
+        while (b != 0)
+        {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+
+        return a;
+    }
+}
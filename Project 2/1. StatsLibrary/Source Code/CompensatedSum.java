@@ -0,0 +1,96 @@
+//CompensatedSum
+//Neumaier's improved Kahan summation. Along with the running sum it keeps the low-order bits that each
+//addition rounds away, so the error stays at a couple of ulps no matter how many values are added.
+//The static methods keep everything in local variables (nothing is allocated), and an accumulator object
+//that never leaves its method is kept in registers by the JIT, so both cost about the same as a plain loop.
+
+public final class CompensatedSum
+{
+	// Running sum and the rounding error it has lost so far
+    private double sum;
+    private double compensation;
+
+    // Empty sum
+    public CompensatedSum()
+    {
+    }
+
+    // Add a single value
+    public void add(double x)
+    {
+        double t = sum + x;
+
+        // Recover the bits lost from whichever operand is smaller
+        if (Math.abs(sum) >= Math.abs(x))
+            compensation += (sum - t) + x;
+        else
+            compensation += (x - t) + sum;
+
+        sum = t;
+    }
+
+    // Add another compensated sum, keeping both error terms
+    public void add(CompensatedSum other)
+    {
+        add(other.sum);
+        compensation += other.compensation;
+    }
+
+    // Start again from zero so the object can be reused
+    public void reset()
+    {
+        sum = 0.0;
+        compensation = 0.0;
+    }
+
+    // The corrected sum
+    public double getSum() {
+        return sum + compensation;
+    }
+
+    // Compensated sum of a slice
+    public static double sum(double[] values, int offset, int length)
+    {
+        double sum = 0.0;
+        double compensation = 0.0;
+
+        for (int i = offset; i < offset + length; i++)
+        {
+            double x = values[i];
+            double t = sum + x;
+
+            if (Math.abs(sum) >= Math.abs(x))
+                compensation += (sum - t) + x;
+            else
+                compensation += (x - t) + sum;
+
+            sum = t;
+        }
+
+        return sum + compensation;
+    }
+
+    // Compensated sum of (x - center)^2 over a slice
+    public static double sumOfSquaredDeviations(double[] values, int offset, int length, double center)
+    {
+        double sum = 0.0;
+        double compensation = 0.0;
+
+        for (int i = offset; i < offset + length; i++)
+        {
+            double d = values[i] - center;
+            double x = d * d;
+            double t = sum + x;
+
+            // Both operands are non-negative here, so no Math.abs is needed
+            if (sum >= x)
+                compensation += (sum - t) + x;
+            else
+                compensation += (x - t) + sum;
+
+            sum = t;
+        }
+
+        return sum + compensation;
+    }
+}
@@ -0,0 +1,670 @@
+import java.util.random.RandomGenerator;
+
+//ContinuousDistribution
+//Normal, gamma, beta, Student-t and chi-square distributions with PDF, CDF, inverse CDF and sampling.
+//Create one with the static factory methods (normal, gamma, beta, studentT, chiSquare); constants such as
+//log-normalizers are worked out once in the constructor, so the array versions stay cheap per element.
+//CDFs use rational approximations (normal) or the continued fractions in SpecialFunctions, and quantiles
+//start from a closed-form guess and are polished with safeguarded Newton steps.
+
+public abstract class ContinuousDistribution
+{
+	// Quantile solver settings
+    private static final double QUANTILE_TOLERANCE = 1e-14;
+    private static final int MAX_QUANTILE_ITERATIONS = 200;
+
+    // sqrt(2 * pi)
+    private static final double SQRT_2PI = Math.sqrt(2 * Math.PI);
+
+    // Only the factory methods below create distributions
+    private ContinuousDistribution()
+    {
+    }
+
+    // ---------- Factory methods ----------
+
+    // Normal distribution with the given mean and standard deviation
+    public static ContinuousDistribution normal(double mean, double standardDeviation)
+    {
+        return new Normal(mean, standardDeviation);
+    }
+
+    // Gamma distribution with shape k and scale theta (mean k * theta)
+    public static ContinuousDistribution gamma(double shape, double scale)
+    {
+        return new Gamma(shape, scale);
+    }
+
+    // Beta distribution on [0, 1] with shape parameters alpha and beta
+    public static ContinuousDistribution beta(double alpha, double beta)
+    {
+        return new Beta(alpha, beta);
+    }
+
+    // Student-t distribution with the given degrees of freedom
+    public static ContinuousDistribution studentT(double degreesOfFreedom)
+    {
+        return new StudentT(degreesOfFreedom);
+    }
+
+    // Chi-square distribution with the given degrees of freedom (a gamma with shape k / 2, scale 2)
+    public static ContinuousDistribution chiSquare(double degreesOfFreedom)
+    {
+        if (!(degreesOfFreedom > 0) || Double.isInfinite(degreesOfFreedom))
+            throw new IllegalArgumentException("Invalid chi-square degrees of freedom.");
+
+        return new Gamma(degreesOfFreedom / 2, 2.0);
+    }
+
+    // ---------- Single values ----------
+
+    // Probability density at x
+    public abstract double density(double x);
+
+    // P(X <= x)
+    public abstract double cumulativeProbability(double x);
+
+    // P(X > x), overridden where the upper tail can be computed directly
+    public double survivalProbability(double x)
+    {
+        return 1.0 - cumulativeProbability(x);
+    }
+
+    // The x with P(X <= x) = p
+    public abstract double inverseCumulativeProbability(double p);
+
+    // One random draw
+    public abstract double sample(RandomGenerator random);
+
+    // Mean and variance of the distribution
+    public abstract double getMean();
+
+    public abstract double getVariance();
+
+    // ---------- Arrays ----------
+
+    // out[i] = density(xs[i])
+    public void density(double[] xs, double[] out)
+    {
+        checkBatch(xs.length, out);
+
+        for (int i = 0; i < xs.length; i++)
+            out[i] = density(xs[i]);
+    }
+
+    // out[i] = cumulativeProbability(xs[i])
+    public void cumulativeProbability(double[] xs, double[] out)
+    {
+        checkBatch(xs.length, out);
+
+        for (int i = 0; i < xs.length; i++)
+            out[i] = cumulativeProbability(xs[i]);
+    }
+
+    // out[i] = inverseCumulativeProbability(ps[i])
+    public void inverseCumulativeProbability(double[] ps, double[] out)
+    {
+        checkBatch(ps.length, out);
+
+        for (int i = 0; i < ps.length; i++)
+            out[i] = inverseCumulativeProbability(ps[i]);
+    }
+
+    // Fill out with independent random draws
+    public void sample(RandomGenerator random, double[] out)
+    {
+        for (int i = 0; i < out.length; i++)
+            out[i] = sample(random);
+    }
+
+    // ---------- Normal ----------
+
+    private static final class Normal extends ContinuousDistribution
+    {
+        private final double mean;
+        private final double sd;
+        private final double logNormalizer;
+
+        Normal(double mean, double sd)
+        {
+            if (!(sd > 0) || Double.isInfinite(sd) || Double.isNaN(mean) || Double.isInfinite(mean))
+                throw new IllegalArgumentException("Invalid normal distribution parameters.");
+
+            this.mean = mean;
+            this.sd = sd;
+            this.logNormalizer = -Math.log(sd * SQRT_2PI);
+        }
+
+        @Override
+        public double density(double x)
+        {
+            double z = (x - mean) / sd;
+            return Math.exp(logNormalizer - 0.5 * z * z);
+        }
+
+        @Override
+        public double cumulativeProbability(double x)
+        {
+            return standardNormalCdf((x - mean) / sd);
+        }
+
+        @Override
+        public double survivalProbability(double x)
+        {
+            return standardNormalCdf((mean - x) / sd);
+        }
+
+        @Override
+        public double inverseCumulativeProbability(double p)
+        {
+            return mean + sd * standardNormalQuantile(p);
+        }
+
+        @Override
+        public double sample(RandomGenerator random)
+        {
+            return mean + sd * random.nextGaussian();
+        }
+
+        @Override
+        public double getMean() {
+            return mean;
+        }
+
+        @Override
+        public double getVariance() {
+            return sd * sd;
+        }
+    }
+
+    // Standard normal CDF. Hart's rational approximation (as given by West) near the centre, where it is
+    // accurate to about 1e-13 relative, and the incomplete gamma continued fraction in the tails
+    static double standardNormalCdf(double z)
+    {
+        if (Double.isNaN(z))
+            return Double.NaN;
+
+        double x = Math.abs(z);
+        double tail;
+
+        if (x > 38.5)
+        {
+            // Below the smallest double
+            tail = 0.0;
+        }
+        else if (x >= 3)
+        {
+            tail = normalTail(x);
+        }
+        else
+        {
+            double numerator = 3.52624965998911e-02 * x + 0.700383064443688;
+            numerator = numerator * x + 6.37396220353165;
+            numerator = numerator * x + 33.912866078383;
+            numerator = numerator * x + 112.079291497871;
+            numerator = numerator * x + 221.213596169931;
+            numerator = numerator * x + 220.206867912376;
+
+            double denominator = 8.83883476483184e-02 * x + 1.75566716318264;
+            denominator = denominator * x + 16.064177579207;
+            denominator = denominator * x + 86.7807322029461;
+            denominator = denominator * x + 296.564248779674;
+            denominator = denominator * x + 637.333633378831;
+            denominator = denominator * x + 793.826512519948;
+            denominator = denominator * x + 440.413735824752;
+
+            tail = Math.exp(-x * x / 2) * numerator / denominator;
+        }
+
+        return (z > 0) ? 1.0 - tail : tail;
+    }
+
+    // Phi(-x) for x >= 3, from the continued fraction for Q(1/2, x^2 / 2) (modified Lentz).
+    // The Gamma(1/2) prefactor is known in closed form, which keeps this cheap
+    private static double normalTail(double x)
+    {
+        double t = x * x / 2;
+        double b = t + 0.5;
+        double c = 1e300;
+        double d = 1.0 / b;
+        double h = d;
+
+        for (int i = 1; i < 1000; i++)
+        {
+            double an = -i * (i - 0.5);
+            b += 2;
+            d = 1.0 / (an * d + b);
+            c = b + an / c;
+
+            double delta = d * c;
+            h *= delta;
+
+            if (Math.abs(delta - 1) < 1e-16)
+                break;
+        }
+
+        // Q(1/2, t) = h * sqrt(t) e^-t / sqrt(pi), and Phi(-x) is half of that
+        return 0.5 * h * Math.sqrt(t / Math.PI) * Math.exp(-t);
+    }
+
+    // Standard normal quantile (Acklam's rational approximation plus one Halley refinement step)
+    static double standardNormalQuantile(double p)
+    {
+        checkProbability(p);
+
+        if (p == 0)
+            return Double.NEGATIVE_INFINITY;
+        if (p == 1)
+            return Double.POSITIVE_INFINITY;
+
+        double pLow = 0.02425;
+        double x;
+
+        if (p < pLow)
+        {
+            double q = Math.sqrt(-2 * Math.log(p));
+            x = (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                    / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q + 3.754408661907416e+00) * q + 1);
+        }
+        else if (p <= 1 - pLow)
+        {
+            double q = p - 0.5;
+            double r = q * q;
+            x = (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                    / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+        }
+        else
+        {
+            double q = Math.sqrt(-2 * Math.log1p(-p));
+            x = -(((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                    / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q + 3.754408661907416e+00) * q + 1);
+        }
+
+        // Halley step against the accurate CDF, using whichever tail keeps the error small
+        double e = (x <= 0) ? standardNormalCdf(x) - p : (1 - p) - standardNormalCdf(-x);
+        double u = e * SQRT_2PI * Math.exp(x * x / 2);
+
+        return x - u / (1 + x * u / 2);
+    }
+
+    // ---------- Gamma (and chi-square) ----------
+
+    private static final class Gamma extends ContinuousDistribution
+    {
+        private final double shape;
+        private final double scale;
+        private final double logNormalizer;
+
+        Gamma(double shape, double scale)
+        {
+            if (!(shape > 0) || !(scale > 0) || Double.isInfinite(shape) || Double.isInfinite(scale))
+                throw new IllegalArgumentException("Invalid gamma distribution parameters.");
+
+            this.shape = shape;
+            this.scale = scale;
+            this.logNormalizer = -SpecialFunctions.logGamma(shape) - shape * Math.log(scale);
+        }
+
+        @Override
+        public double density(double x)
+        {
+            if (x < 0)
+                return 0.0;
+
+            if (x == 0)
+                return (shape < 1) ? Double.POSITIVE_INFINITY : (shape == 1) ? 1.0 / scale : 0.0;
+
+            return Math.exp(logNormalizer + (shape - 1) * Math.log(x) - x / scale);
+        }
+
+        @Override
+        public double cumulativeProbability(double x)
+        {
+            if (x <= 0)
+                return 0.0;
+            if (x == Double.POSITIVE_INFINITY)
+                return 1.0;
+
+            return SpecialFunctions.regularizedGammaP(shape, x / scale);
+        }
+
+        @Override
+        public double survivalProbability(double x)
+        {
+            if (x <= 0)
+                return 1.0;
+            if (x == Double.POSITIVE_INFINITY)
+                return 0.0;
+
+            return SpecialFunctions.regularizedGammaQ(shape, x / scale);
+        }
+
+        @Override
+        public double inverseCumulativeProbability(double p)
+        {
+            checkProbability(p);
+
+            if (p == 0)
+                return 0.0;
+            if (p == 1)
+                return Double.POSITIVE_INFINITY;
+
+            // Wilson-Hilferty starting point (cube root of a gamma is close to normal)
+            double z = standardNormalQuantile(p);
+            double c = 1.0 / (9 * shape);
+            double cube = 1 - c + z * Math.sqrt(c);
+            double guess = (cube > 0) ? shape * cube * cube * cube : Math.pow(p * Math.exp(SpecialFunctions.logGamma(shape + 1)), 1.0 / shape);
+
+            // Bracket the answer, doubling the upper bound until it covers p
+            double hi = Math.max(guess, shape) * 2 + 1;
+            while (cumulativeProbability(hi * scale) < p)
+                hi *= 2;
+
+            return scale * solveQuantile(t -> cumulativeProbability(t * scale), t -> density(t * scale) * scale, p, guess, 0.0, hi);
+        }
+
+        @Override
+        public double sample(RandomGenerator random)
+        {
+            return scale * sampleStandardGamma(shape, random);
+        }
+
+        @Override
+        public double getMean() {
+            return shape * scale;
+        }
+
+        @Override
+        public double getVariance() {
+            return shape * scale * scale;
+        }
+    }
+
+    // Gamma(shape, 1) draw using Marsaglia and Tsang's squeeze method
+    static double sampleStandardGamma(double shape, RandomGenerator random)
+    {
+        // Shapes below 1: draw with shape + 1 and scale down by U^(1 / shape)
+        if (shape < 1)
+            return sampleStandardGamma(shape + 1, random) * Math.pow(random.nextDouble(), 1.0 / shape);
+
+        double d = shape - 1.0 / 3;
+        double c = 1.0 / Math.sqrt(9 * d);
+
+        while (true)
+        {
+            double x = random.nextGaussian();
+            double v = 1 + c * x;
+
+            if (v <= 0)
+                continue;
+
+            v = v * v * v;
+            double u = random.nextDouble();
+
+            if (u < 1 - 0.0331 * x * x * x * x)
+                return d * v;
+
+            if (Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v)))
+                return d * v;
+        }
+    }
+
+    // ---------- Beta ----------
+
+    private static final class Beta extends ContinuousDistribution
+    {
+        private final double alpha;
+        private final double beta;
+        private final double logNormalizer;
+
+        Beta(double alpha, double beta)
+        {
+            if (!(alpha > 0) || !(beta > 0) || Double.isInfinite(alpha) || Double.isInfinite(beta))
+                throw new IllegalArgumentException("Invalid beta distribution parameters.");
+
+            this.alpha = alpha;
+            this.beta = beta;
+            this.logNormalizer = -SpecialFunctions.logBeta(alpha, beta);
+        }
+
+        @Override
+        public double density(double x)
+        {
+            if (x < 0 || x > 1)
+                return 0.0;
+
+            if (x == 0)
+                return (alpha < 1) ? Double.POSITIVE_INFINITY : (alpha == 1) ? beta : 0.0;
+            if (x == 1)
+                return (beta < 1) ? Double.POSITIVE_INFINITY : (beta == 1) ? alpha : 0.0;
+
+            return Math.exp(logNormalizer + (alpha - 1) * Math.log(x) + (beta - 1) * Math.log1p(-x));
+        }
+
+        @Override
+        public double cumulativeProbability(double x)
+        {
+            if (x <= 0)
+                return 0.0;
+            if (x >= 1)
+                return 1.0;
+
+            return SpecialFunctions.regularizedBeta(x, alpha, beta);
+        }
+
+        @Override
+        public double survivalProbability(double x)
+        {
+            if (x <= 0)
+                return 1.0;
+            if (x >= 1)
+                return 0.0;
+
+            return SpecialFunctions.regularizedBeta(1 - x, beta, alpha);
+        }
+
+        @Override
+        public double inverseCumulativeProbability(double p)
+        {
+            checkProbability(p);
+
+            if (p == 0)
+                return 0.0;
+            if (p == 1)
+                return 1.0;
+
+            // Candidate starting points: a normal approximation, and the tail forms
+            // I_x(a, b) ~ x^a / (a B(a, b)) near 0 and 1 - I_x(a, b) ~ (1 - x)^b / (b B(a, b)) near 1
+            double logBeta = -logNormalizer;
+            double[] candidates = {
+                    getMean() + standardNormalQuantile(p) * Math.sqrt(getVariance()),
+                    Math.exp((Math.log(p) + Math.log(alpha) + logBeta) / alpha),
+                    1 - Math.exp((Math.log1p(-p) + Math.log(beta) + logBeta) / beta) };
+
+            // Keep the candidate whose CDF lands closest to p
+            double guess = 0.5;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (double candidate : candidates)
+            {
+                if (!(candidate > 0 && candidate < 1))
+                    continue;
+
+                double distance = Math.abs(Math.log(cumulativeProbability(candidate) / p));
+                if (distance < bestDistance)
+                {
+                    bestDistance = distance;
+                    guess = candidate;
+                }
+            }
+
+            return solveQuantile(this::cumulativeProbability, this::density, p, guess, 0.0, 1.0);
+        }
+
+        @Override
+        public double sample(RandomGenerator random)
+        {
+            double x = sampleStandardGamma(alpha, random);
+            double y = sampleStandardGamma(beta, random);
+            return x / (x + y);
+        }
+
+        @Override
+        public double getMean() {
+            return alpha / (alpha + beta);
+        }
+
+        @Override
+        public double getVariance() {
+            double total = alpha + beta;
+            return alpha * beta / (total * total * (total + 1));
+        }
+    }
+
+    // ---------- Student-t ----------
+
+    private static final class StudentT extends ContinuousDistribution
+    {
+        private final double dof;
+        private final double logNormalizer;
+
+        StudentT(double dof)
+        {
+            if (!(dof > 0) || Double.isInfinite(dof))
+                throw new IllegalArgumentException("Invalid Student-t degrees of freedom.");
+
+            this.dof = dof;
+            this.logNormalizer = SpecialFunctions.logGamma((dof + 1) / 2) - SpecialFunctions.logGamma(dof / 2) - 0.5 * Math.log(dof * Math.PI);
+        }
+
+        @Override
+        public double density(double t)
+        {
+            return Math.exp(logNormalizer - (dof + 1) / 2 * Math.log1p(t * t / dof));
+        }
+
+        @Override
+        public double cumulativeProbability(double t)
+        {
+            if (Double.isNaN(t))
+                return Double.NaN;
+            if (t == Double.NEGATIVE_INFINITY)
+                return 0.0;
+            if (t == Double.POSITIVE_INFINITY)
+                return 1.0;
+
+            // Both tails hold 0.5 * I_x(dof / 2, 1 / 2) with x = dof / (dof + t^2)
+            double tail = 0.5 * SpecialFunctions.regularizedBeta(dof / (dof + t * t), dof / 2, 0.5);
+            return (t > 0) ? 1.0 - tail : tail;
+        }
+
+        @Override
+        public double survivalProbability(double t)
+        {
+            return cumulativeProbability(-t);
+        }
+
+        @Override
+        public double inverseCumulativeProbability(double p)
+        {
+            checkProbability(p);
+
+            if (p == 0)
+                return Double.NEGATIVE_INFINITY;
+            if (p == 1)
+                return Double.POSITIVE_INFINITY;
+            if (p == 0.5)
+                return 0.0;
+
+            // Solve in the lower tail and mirror, which keeps small tail probabilities precise
+            double lower = Math.min(p, 1 - p);
+
+            double guess = standardNormalQuantile(lower);
+            double lo = Math.min(guess, -1.0);
+            while (cumulativeProbability(lo) > lower)
+                lo *= 2;
+
+            double t = solveQuantile(this::cumulativeProbability, this::density, lower, guess, lo, 0.0);
+            return (p < 0.5) ? t : -t;
+        }
+
+        @Override
+        public double sample(RandomGenerator random)
+        {
+            double chiSquare = 2 * sampleStandardGamma(dof / 2, random);
+            return random.nextGaussian() / Math.sqrt(chiSquare / dof);
+        }
+
+        @Override
+        public double getMean() {
+            return (dof > 1) ? 0.0 : Double.NaN;
+        }
+
+        @Override
+        public double getVariance() {
+            return (dof > 2) ? dof / (dof - 2) : (dof > 1) ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+    }
+
+    // ---------- Helpers ----------
+
+    // One-argument function used by the quantile solver
+    private interface DoubleFunction
+    {
+        double at(double x);
+    }
+
+    // Newton's method on cdf(x) = p, falling back to bisection whenever a step leaves the bracket [lo, hi]
+    private static double solveQuantile(DoubleFunction cdf, DoubleFunction pdf, double p, double guess, double lo, double hi)
+    {
+        double x = (guess > lo && guess < hi) ? guess : (lo + hi) / 2;
+
+        for (int i = 0; i < MAX_QUANTILE_ITERATIONS; i++)
+        {
+            double error = cdf.at(x) - p;
+
+            if (error == 0)
+                return x;
+
+            // Shrink the bracket around the root
+            if (error < 0)
+                lo = x;
+            else
+                hi = x;
+
+            double slope = pdf.at(x);
+            double next = (slope > 0) ? x - error / slope : Double.NaN;
+
+            // Bisect when Newton leaves the bracket. Over a wide positive bracket bisect on a log scale,
+            // so tiny quantiles (deep tails of gamma and beta) are reached in a few dozen steps
+            if (!(next > lo && next < hi))
+            {
+                if (lo > 0 && hi > 64 * lo)
+                    next = Math.sqrt(lo * hi);
+                else if (lo == 0 && hi > 0)
+                    next = hi / 64;
+                else
+                    next = (lo + hi) / 2;
+            }
+
+            if (Math.abs(next - x) <= QUANTILE_TOLERANCE * Math.abs(next) || hi - lo <= QUANTILE_TOLERANCE * Math.abs(next))
+                return next;
+
+            x = next;
+        }
+
+        return x;
+    }
+
+    // Output arrays must be at least as long as the input
+    private static void checkBatch(int length, double[] out)
+    {
+        if (out == null || out.length < length)
+            throw new IllegalArgumentException("Output array is smaller than the argument array.");
+    }
+
+    private static void checkProbability(double p)
+    {
+        if (!(p >= 0 && p <= 1))
+            throw new IllegalArgumentException("Probability must be between 0 and 1.");
+    }
+}
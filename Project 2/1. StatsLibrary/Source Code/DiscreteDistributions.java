@@ -0,0 +1,597 @@
+//DiscreteDistributions
+//Binomial, Poisson, hypergeometric and negative binomial probabilities evaluated in log space.
+//PMFs use Loader's saddle point form (Stirling error + deviance terms), so they cost the same for
+//n = 10 as for n = 10^9 and never build a BigInteger. CDFs and survival functions come from the
+//regularized incomplete beta/gamma functions, and quantiles search the CDF.
+
+public final class DiscreteDistributions
+{
+	// Static helper class, no objects needed
+    private DiscreteDistributions()
+    {
+    }
+
+    // ---------- Binomial: number of successes k in n trials ----------
+
+    // ln P(X = k)
+    public static double binomialLogPmf(int k, int n, double p)
+    {
+        checkBinomial(n, p);
+
+        if (k < 0 || k > n)
+            return Double.NEGATIVE_INFINITY;
+
+        return SpecialFunctions.logBinomialTerm(k, n, p, 1 - p);
+    }
+
+    // P(X = k)
+    public static double binomialPmf(int k, int n, double p)
+    {
+        return Math.exp(binomialLogPmf(k, n, p));
+    }
+
+    // P(X <= k)
+    public static double binomialCdf(int k, int n, double p)
+    {
+        checkBinomial(n, p);
+
+        if (k < 0)
+            return 0.0;
+        if (k >= n)
+            return 1.0;
+
+        // P(X <= k) = I_(1 - p)(n - k, k + 1)
+        return SpecialFunctions.regularizedBeta(1 - p, n - k, k + 1.0);
+    }
+
+    // P(X > k), computed directly so small upper tails keep their precision
+    public static double binomialSurvival(int k, int n, double p)
+    {
+        checkBinomial(n, p);
+
+        if (k < 0)
+            return 1.0;
+        if (k >= n)
+            return 0.0;
+
+        // P(X > k) = I_p(k + 1, n - k)
+        return SpecialFunctions.regularizedBeta(p, k + 1.0, n - k);
+    }
+
+    // Smallest k with P(X <= k) >= probability
+    public static int binomialQuantile(double probability, int n, double p)
+    {
+        checkBinomial(n, p);
+        checkProbability(probability);
+
+        return searchCdf(0, n, probability, k -> binomialCdf(k, n, p));
+    }
+
+    // ---------- Poisson: number of events k with mean lambda ----------
+
+    // ln P(X = k)
+    public static double poissonLogPmf(int k, double lambda)
+    {
+        checkPoisson(lambda);
+
+        if (k < 0)
+            return Double.NEGATIVE_INFINITY;
+
+        if (lambda == 0)
+            return (k == 0) ? 0.0 : Double.NEGATIVE_INFINITY;
+
+        if (k == 0)
+            return -lambda;
+
+        return -SpecialFunctions.stirlingError(k) - SpecialFunctions.deviance(k, lambda) - 0.5 * (SpecialFunctions.LN_2PI + Math.log(k));
+    }
+
+    // P(X = k)
+    public static double poissonPmf(int k, double lambda)
+    {
+        return Math.exp(poissonLogPmf(k, lambda));
+    }
+
+    // P(X <= k)
+    public static double poissonCdf(int k, double lambda)
+    {
+        checkPoisson(lambda);
+
+        if (k < 0)
+            return 0.0;
+        if (lambda == 0)
+            return 1.0;
+
+        // P(X <= k) = Q(k + 1, lambda)
+        return SpecialFunctions.regularizedGammaQ(k + 1.0, lambda);
+    }
+
+    // P(X > k)
+    public static double poissonSurvival(int k, double lambda)
+    {
+        checkPoisson(lambda);
+
+        if (k < 0)
+            return 1.0;
+        if (lambda == 0)
+            return 0.0;
+
+        return SpecialFunctions.regularizedGammaP(k + 1.0, lambda);
+    }
+
+    // Smallest k with P(X <= k) >= probability
+    public static int poissonQuantile(double probability, double lambda)
+    {
+        checkPoisson(lambda);
+        checkProbability(probability);
+
+        // Grow an upper bound from the mean until it covers the probability
+        long hi = (long) Math.ceil(lambda + 6 * Math.sqrt(lambda)) + 10;
+        while (hi < Integer.MAX_VALUE && poissonCdf((int) hi, lambda) < probability)
+            hi = Math.min(Integer.MAX_VALUE, hi * 2);
+
+        return searchCdf(0, (int) hi, probability, k -> poissonCdf(k, lambda));
+    }
+
+    // ---------- Hypergeometric: y successes when drawing n from N items with r successes ----------
+
+    // ln P(Y = y)
+    public static double hypergeometricLogPmf(int y, int N, int r, int n)
+    {
+        checkHypergeometric(N, r, n);
+
+        if (y < Math.max(0, n - (N - r)) || y > Math.min(r, n))
+            return Double.NEGATIVE_INFINITY;
+
+        if (n == 0 || n == N)
+            return 0.0;
+
+        // C(r, y) C(N - r, n - y) / C(N, n), each as a binomial term with p = n / N so the powers cancel
+        double p = (double) n / N;
+        double q = (double) (N - n) / N;
+
+        return SpecialFunctions.logBinomialTerm(y, r, p, q)
+                + SpecialFunctions.logBinomialTerm(n - y, N - r, p, q)
+                - SpecialFunctions.logBinomialTerm(n, N, p, q);
+    }
+
+    // P(Y = y)
+    public static double hypergeometricPmf(int y, int N, int r, int n)
+    {
+        return Math.exp(hypergeometricLogPmf(y, N, r, n));
+    }
+
+    // P(Y <= y)
+    public static double hypergeometricCdf(int y, int N, int r, int n)
+    {
+        checkHypergeometric(N, r, n);
+
+        if (y < Math.max(0, n - (N - r)))
+            return 0.0;
+        if (y >= Math.min(r, n))
+            return 1.0;
+
+        // Always sum the tail that moves away from the mode, where terms shrink quickly
+        if (y < hypergeometricMode(N, r, n))
+            return Math.min(1.0, sumHypergeometricDown(y, N, r, n));
+
+        return Math.max(0.0, 1.0 - sumHypergeometricUp(y + 1, N, r, n));
+    }
+
+    // P(Y > y)
+    public static double hypergeometricSurvival(int y, int N, int r, int n)
+    {
+        checkHypergeometric(N, r, n);
+
+        if (y < Math.max(0, n - (N - r)))
+            return 1.0;
+        if (y >= Math.min(r, n))
+            return 0.0;
+
+        if (y + 1 > hypergeometricMode(N, r, n))
+            return Math.min(1.0, sumHypergeometricUp(y + 1, N, r, n));
+
+        return Math.max(0.0, 1.0 - sumHypergeometricDown(y, N, r, n));
+    }
+
+    // Smallest y with P(Y <= y) >= probability
+    public static int hypergeometricQuantile(double probability, int N, int r, int n)
+    {
+        checkHypergeometric(N, r, n);
+        checkProbability(probability);
+
+        return searchCdf(Math.max(0, n - (N - r)), Math.min(r, n), probability, y -> hypergeometricCdf(y, N, r, n));
+    }
+
+    // ---------- Negative binomial: trial y on which the r-th success happens ----------
+
+    // ln P(Y = y)
+    public static double negativeBinomialLogPmf(int y, int r, double p)
+    {
+        checkNegativeBinomial(r, p);
+
+        if (y < r)
+            return Double.NEGATIVE_INFINITY;
+
+        // C(y - 1, r - 1) p^r q^(y - r) = (r / y) C(y, r) p^r q^(y - r)
+        return Math.log((double) r / y) + SpecialFunctions.logBinomialTerm(r, y, p, 1 - p);
+    }
+
+    // P(Y = y)
+    public static double negativeBinomialPmf(int y, int r, double p)
+    {
+        return Math.exp(negativeBinomialLogPmf(y, r, p));
+    }
+
+    // P(Y <= y), the chance of at least r successes in y trials
+    public static double negativeBinomialCdf(int y, int r, double p)
+    {
+        checkNegativeBinomial(r, p);
+
+        if (y < r)
+            return 0.0;
+        if (p == 1)
+            return 1.0;
+
+        // P(Y <= y) = I_p(r, y - r + 1)
+        return SpecialFunctions.regularizedBeta(p, r, y - r + 1.0);
+    }
+
+    // P(Y > y)
+    public static double negativeBinomialSurvival(int y, int r, double p)
+    {
+        checkNegativeBinomial(r, p);
+
+        if (y < r)
+            return 1.0;
+        if (p == 1)
+            return 0.0;
+
+        return SpecialFunctions.regularizedBeta(1 - p, y - r + 1.0, r);
+    }
+
+    // Smallest y with P(Y <= y) >= probability
+    public static int negativeBinomialQuantile(double probability, int r, double p)
+    {
+        checkNegativeBinomial(r, p);
+        checkProbability(probability);
+
+        if (p == 0)
+            throw new IllegalArgumentException("Negative binomial quantile needs p > 0.");
+
+        // Grow an upper bound from the mean r / p until it covers the probability
+        double mean = r / p;
+        long hi = (long) Math.ceil(mean + 6 * Math.sqrt(r * (1 - p)) / p) + 10;
+        while (hi < Integer.MAX_VALUE && negativeBinomialCdf((int) Math.min(hi, Integer.MAX_VALUE), r, p) < probability)
+            hi = Math.min(Integer.MAX_VALUE, hi * 2);
+
+        return searchCdf(r, (int) Math.min(hi, Integer.MAX_VALUE), probability, y -> negativeBinomialCdf(y, r, p));
+    }
+
+    // ---------- Batch evaluation ----------
+    // Consecutive arguments are filled with the ratio P(k + 1) / P(k) instead of a fresh evaluation,
+    // so a whole table costs O(k_max). Runs are re-anchored with a direct evaluation every
+    // RECURRENCE_RUN steps to keep rounding drift bounded.
+
+    // P(X = ks[i]) for each i, written to out[i]
+    public static void binomialPmf(int[] ks, int n, double p, double[] out)
+    {
+        checkBinomial(n, p);
+        fillPmf(ks, out, k -> binomialLogPmf(k, n, p), k -> (double) (n - k) / (k + 1) * (p / (1 - p)));
+    }
+
+    // P(X <= ks[i]) for each i, written to out[i]
+    public static void binomialCdf(int[] ks, int n, double p, double[] out)
+    {
+        checkBinomial(n, p);
+        fillCdf(ks, out, k -> binomialCdf(k, n, p), k -> binomialLogPmf(k, n, p), k -> (double) (n - k) / (k + 1) * (p / (1 - p)));
+    }
+
+    // out[k] = P(X = k) for k = 0 .. out.length - 1
+    public static void binomialPmfTable(int n, double p, double[] out)
+    {
+        checkBinomial(n, p);
+        fillTable(out, (int) Math.floor((n + 1) * p), k -> binomialLogPmf(k, n, p), k -> (double) (n - k) / (k + 1) * (p / (1 - p)));
+    }
+
+    // P(X = ks[i]) for each i, written to out[i]
+    public static void poissonPmf(int[] ks, double lambda, double[] out)
+    {
+        checkPoisson(lambda);
+        fillPmf(ks, out, k -> poissonLogPmf(k, lambda), k -> lambda / (k + 1));
+    }
+
+    // P(X <= ks[i]) for each i, written to out[i]
+    public static void poissonCdf(int[] ks, double lambda, double[] out)
+    {
+        checkPoisson(lambda);
+        fillCdf(ks, out, k -> poissonCdf(k, lambda), k -> poissonLogPmf(k, lambda), k -> lambda / (k + 1));
+    }
+
+    // out[k] = P(X = k) for k = 0 .. out.length - 1
+    public static void poissonPmfTable(double lambda, double[] out)
+    {
+        checkPoisson(lambda);
+        fillTable(out, (int) Math.min(Integer.MAX_VALUE, Math.floor(lambda)), k -> poissonLogPmf(k, lambda), k -> lambda / (k + 1));
+    }
+
+    // P(Y = ys[i]) for each i, written to out[i]
+    public static void hypergeometricPmf(int[] ys, int N, int r, int n, double[] out)
+    {
+        checkHypergeometric(N, r, n);
+        fillPmf(ys, out, y -> hypergeometricLogPmf(y, N, r, n), y -> hypergeometricRatio(y, N, r, n));
+    }
+
+    // P(Y <= ys[i]) for each i, written to out[i]
+    public static void hypergeometricCdf(int[] ys, int N, int r, int n, double[] out)
+    {
+        checkHypergeometric(N, r, n);
+        fillCdf(ys, out, y -> hypergeometricCdf(y, N, r, n), y -> hypergeometricLogPmf(y, N, r, n), y -> hypergeometricRatio(y, N, r, n));
+    }
+
+    // out[y] = P(Y = y) for y = 0 .. out.length - 1
+    public static void hypergeometricPmfTable(int N, int r, int n, double[] out)
+    {
+        checkHypergeometric(N, r, n);
+        fillTable(out, hypergeometricMode(N, r, n), y -> hypergeometricLogPmf(y, N, r, n), y -> hypergeometricRatio(y, N, r, n));
+    }
+
+    // P(Y = ys[i]) for each i, written to out[i]
+    public static void negativeBinomialPmf(int[] ys, int r, double p, double[] out)
+    {
+        checkNegativeBinomial(r, p);
+        fillPmf(ys, out, y -> negativeBinomialLogPmf(y, r, p), y -> (double) y / (y - r + 1) * (1 - p));
+    }
+
+    // P(Y <= ys[i]) for each i, written to out[i]
+    public static void negativeBinomialCdf(int[] ys, int r, double p, double[] out)
+    {
+        checkNegativeBinomial(r, p);
+        fillCdf(ys, out, y -> negativeBinomialCdf(y, r, p), y -> negativeBinomialLogPmf(y, r, p), y -> (double) y / (y - r + 1) * (1 - p));
+    }
+
+    // out[y] = P(Y = y) for y = 0 .. out.length - 1 (zero below r)
+    public static void negativeBinomialPmfTable(int r, double p, double[] out)
+    {
+        checkNegativeBinomial(r, p);
+
+        // Mode of the trial count is r + floor((r - 1)(1 - p) / p), or r when p = 1
+        long mode = (p == 0) ? Integer.MAX_VALUE : r + (long) Math.floor((r - 1) * (1 - p) / p);
+        fillTable(out, (int) Math.min(Integer.MAX_VALUE, mode), y -> negativeBinomialLogPmf(y, r, p), y -> (double) y / (y - r + 1) * (1 - p));
+    }
+
+    // ---------- Helpers ----------
+
+    // CDF of one integer argument, used by the quantile searches
+    private interface IntCdf
+    {
+        double at(int k);
+    }
+
+    // Re-anchor recurrences with a direct evaluation after this many steps
+    private static final int RECURRENCE_RUN = 1024;
+
+    // ln P(X = k) for one integer argument
+    private interface IntLogPmf
+    {
+        double at(int k);
+    }
+
+    // P(X = k + 1) / P(X = k)
+    private interface IntRatio
+    {
+        double at(int k);
+    }
+
+    // Fill out[i] = P(X = ks[i]), stepping with the ratio when ks[i] follows ks[i - 1]
+    private static void fillPmf(int[] ks, double[] out, IntLogPmf logPmf, IntRatio ratio)
+    {
+        checkBatch(ks, out);
+
+        int run = 0;
+
+        for (int i = 0; i < ks.length; i++)
+        {
+            double value = Double.NaN;
+
+            // Subnormal values have too few bits left to carry a recurrence
+            if (i > 0 && ks[i] == ks[i - 1] + 1 && out[i - 1] >= Double.MIN_NORMAL && run < RECURRENCE_RUN)
+            {
+                value = out[i - 1] * ratio.at(ks[i - 1]);
+                run++;
+            }
+
+            // Start of a run, or the ratio broke down (degenerate p, zero previous value)
+            if (!(value >= 0 && value < Double.POSITIVE_INFINITY))
+            {
+                value = Math.exp(logPmf.at(ks[i]));
+                run = 0;
+            }
+
+            out[i] = value;
+        }
+    }
+
+    // Fill out[i] = P(X <= ks[i]). Ascending arguments add the PMFs in between to the previous CDF
+    private static void fillCdf(int[] ks, double[] out, IntCdf cdf, IntLogPmf logPmf, IntRatio ratio)
+    {
+        checkBatch(ks, out);
+
+        int run = 0;
+        double pmf = 0.0;
+
+        for (int i = 0; i < ks.length; i++)
+        {
+            int k = ks[i];
+
+            // Direct evaluation at the start, after a big jump or when going backwards
+            if (i == 0 || k < ks[i - 1] || (long) k - ks[i - 1] > RECURRENCE_RUN || run >= RECURRENCE_RUN)
+            {
+                out[i] = cdf.at(k);
+                pmf = Math.exp(logPmf.at(k));
+                run = 0;
+                continue;
+            }
+
+            double sum = out[i - 1];
+
+            for (int j = ks[i - 1]; j < k; j++)
+            {
+                double next = pmf * ratio.at(j);
+
+                if (!(next >= 0 && next < Double.POSITIVE_INFINITY) || pmf < Double.MIN_NORMAL)
+                    next = Math.exp(logPmf.at(j + 1));
+
+                pmf = next;
+                sum += pmf;
+                run++;
+            }
+
+            out[i] = Math.min(1.0, sum);
+        }
+    }
+
+    // Fill out[k] = P(X = k) for k = 0 .. out.length - 1, anchored at the mode and recurring outwards
+    private static void fillTable(double[] out, int mode, IntLogPmf logPmf, IntRatio ratio)
+    {
+        if (out.length == 0)
+            return;
+
+        int anchor = Math.max(0, Math.min(mode, out.length - 1));
+        out[anchor] = Math.exp(logPmf.at(anchor));
+
+        // Upwards: P(k + 1) = P(k) * ratio(k). All four distributions are unimodal, so moving
+        // away from the mode a value that has underflowed to zero stays zero
+        for (int k = anchor + 1; k < out.length; k++)
+        {
+            if (out[k - 1] == 0 && k - 1 > anchor)
+            {
+                out[k] = 0.0;
+                continue;
+            }
+
+            double value = out[k - 1] * ratio.at(k - 1);
+
+            if ((k - anchor) % RECURRENCE_RUN == 0 || !(value >= 0 && value < Double.POSITIVE_INFINITY) || out[k - 1] < Double.MIN_NORMAL)
+                value = Math.exp(logPmf.at(k));
+
+            out[k] = value;
+        }
+
+        // Downwards: P(k - 1) = P(k) / ratio(k - 1)
+        for (int k = anchor - 1; k >= 0; k--)
+        {
+            if (out[k + 1] == 0 && k + 1 < anchor)
+            {
+                out[k] = 0.0;
+                continue;
+            }
+
+            double value = out[k + 1] / ratio.at(k);
+
+            if ((anchor - k) % RECURRENCE_RUN == 0 || !(value >= 0 && value < Double.POSITIVE_INFINITY) || out[k + 1] < Double.MIN_NORMAL)
+                value = Math.exp(logPmf.at(k));
+
+            out[k] = value;
+        }
+    }
+
+    // P(Y = y + 1) / P(Y = y) for the hypergeometric distribution
+    private static double hypergeometricRatio(int y, int N, int r, int n)
+    {
+        return (double) (r - y) * (n - y) / ((double) (y + 1) * ((long) N - r - n + y + 1));
+    }
+
+    // Batch arguments and output must line up
+    private static void checkBatch(int[] ks, double[] out)
+    {
+        if (ks == null || out == null || out.length < ks.length)
+            throw new IllegalArgumentException("Output array is smaller than the argument array.");
+    }
+
+    // Binary search for the smallest k in [lo, hi] with cdf(k) >= probability
+    private static int searchCdf(int lo, int hi, double probability, IntCdf cdf)
+    {
+        while (lo < hi)
+        {
+            int mid = (int) (((long) lo + hi) >>> 1);
+
+            if (cdf.at(mid) >= probability)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+
+        return lo;
+    }
+
+    // Most likely value of the hypergeometric distribution
+    private static int hypergeometricMode(int N, int r, int n)
+    {
+        return (int) (((long) n + 1) * ((long) r + 1) / ((long) N + 2));
+    }
+
+    // P(Y <= from), stepping down from 'from' with the ratio between neighbours until terms vanish
+    private static double sumHypergeometricDown(int from, int N, int r, int n)
+    {
+        int lo = Math.max(0, n - (N - r));
+        double term = hypergeometricPmf(from, N, r, n);
+        double sum = term;
+
+        for (int y = from; y > lo && term > sum * 1e-17; y--)
+        {
+            // P(y - 1) / P(y) = y (N - r - n + y) / ((r - y + 1)(n - y + 1))
+            term *= (double) y * ((long) N - r - n + y) / ((double) (r - y + 1) * (n - y + 1));
+            sum += term;
+        }
+
+        return sum;
+    }
+
+    // P(Y >= from), stepping up from 'from' with the ratio between neighbours until terms vanish
+    private static double sumHypergeometricUp(int from, int N, int r, int n)
+    {
+        int hi = Math.min(r, n);
+        double term = hypergeometricPmf(from, N, r, n);
+        double sum = term;
+
+        for (int y = from; y < hi && term > sum * 1e-17; y++)
+        {
+            // P(y + 1) / P(y) = (r - y)(n - y) / ((y + 1)(N - r - n + y + 1))
+            term *= (double) (r - y) * (n - y) / ((double) (y + 1) * ((long) N - r - n + y + 1));
+            sum += term;
+        }
+
+        return sum;
+    }
+
+    private static void checkBinomial(int n, double p)
+    {
+        if (n < 0 || !(p >= 0 && p <= 1))
+            throw new IllegalArgumentException("Invalid Binomial Distribution bounds.");
+    }
+
+    private static void checkPoisson(double lambda)
+    {
+        if (!(lambda >= 0) || Double.isInfinite(lambda))
+            throw new IllegalArgumentException("Invalid poisson distribution bounds.");
+    }
+
+    private static void checkHypergeometric(int N, int r, int n)
+    {
+        if (N < 0 || r < 0 || n < 0 || r > N || n > N)
+            throw new IllegalArgumentException("Invalid hypergeometric distribution bounds.");
+    }
+
+    private static void checkNegativeBinomial(int r, double p)
+    {
+        if (r < 1 || !(p >= 0 && p <= 1))
+            throw new IllegalArgumentException("Invalid negative binomial distribution bounds.");
+    }
+
+    private static void checkProbability(double probability)
+    {
+        if (!(probability >= 0 && probability <= 1))
+            throw new IllegalArgumentException("Probability must be between 0 and 1.");
+    }
+}
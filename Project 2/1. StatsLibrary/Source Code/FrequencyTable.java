@@ -0,0 +1,312 @@
+import java.util.Arrays;
+
+//FrequencyTable
+//Counts how often each value occurs using a primitive open-addressing double -> int hash map.
+//Distinct values are kept in first-seen order, so modes, the full table and top-k can all be read
+//without rescanning the data. Values match the same way Double.equals does (NaN equals NaN, 0.0 != -0.0).
+
+public class FrequencyTable
+{
+	// Marks an empty slot in the hash index
+    private static final int EMPTY = -1;
+
+    // Distinct values and their counts, in first-seen order
+    private double[] values;
+    private int[] counts;
+    private int size;
+
+    // Open-addressing index into values/counts (linear probing, power of two length)
+    private int[] slots;
+    private int mask;
+
+    // Empty table
+    public FrequencyTable()
+    {
+        this(16);
+    }
+
+    // Empty table sized for about expectedDistinct values
+    public FrequencyTable(int expectedDistinct)
+    {
+        if (expectedDistinct < 0)
+            throw new IllegalArgumentException("Invalid table size.");
+
+        // Keep the load factor at or below one half
+        int capacity = Integer.highestOneBit(Math.max(8, expectedDistinct) * 2 - 1) << 1;
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+
+        values = new double[Math.max(4, expectedDistinct)];
+        counts = new int[values.length];
+    }
+
+    // Build a table from an array slice
+    public static FrequencyTable of(double[] data, int offset, int length)
+    {
+        if (offset < 0 || length < 0 || offset > data.length - length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+
+        // Size for a modest number of repeats, the table grows if needed
+        FrequencyTable table = new FrequencyTable(Math.min(length, 1 << 16));
+
+        for (int i = offset; i < offset + length; i++)
+            table.add(data[i]);
+
+        return table;
+    }
+
+    // Count one occurrence of a value
+    public void add(double value)
+    {
+        long bits = Double.doubleToLongBits(value);
+        int slot = hash(bits) & mask;
+
+        // Probe until we find the value or an empty slot
+        while (slots[slot] != EMPTY)
+        {
+            int entry = slots[slot];
+
+            if (Double.doubleToLongBits(values[entry]) == bits)
+            {
+                counts[entry]++;
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        // New value, append it and point the slot at it
+        if (size == values.length)
+        {
+            values = Arrays.copyOf(values, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+
+        values[size] = value;
+        counts[size] = 1;
+        slots[slot] = size;
+        size++;
+
+        if (size * 2 > slots.length)
+            rehash();
+    }
+
+    // How many times a value was counted (0 if never)
+    public int countOf(double value)
+    {
+        long bits = Double.doubleToLongBits(value);
+        int slot = hash(bits) & mask;
+
+        while (slots[slot] != EMPTY)
+        {
+            int entry = slots[slot];
+
+            if (Double.doubleToLongBits(values[entry]) == bits)
+                return counts[entry];
+
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    // Number of distinct values
+    public int size()
+    {
+        return size;
+    }
+
+    // Distinct value at a position (first-seen order)
+    public double getValue(int index)
+    {
+        checkIndex(index);
+        return values[index];
+    }
+
+    // Count at a position (first-seen order)
+    public int getCount(int index)
+    {
+        checkIndex(index);
+        return counts[index];
+    }
+
+    // Copy of the distinct values in first-seen order
+    public double[] getValues()
+    {
+        return Arrays.copyOf(values, size);
+    }
+
+    // Copy of the counts, lined up with getValues()
+    public int[] getCounts()
+    {
+        return Arrays.copyOf(counts, size);
+    }
+
+    // Highest count in the table
+    public int getMaxCount()
+    {
+        int max = 0;
+
+        for (int i = 0; i < size; i++)
+            max = Math.max(max, counts[i]);
+
+        return max;
+    }
+
+    // The most frequent value; ties go to the value seen first
+    public double getMode()
+    {
+        if (size == 0)
+            throw new IllegalArgumentException("Data set is empty.");
+
+        int best = 0;
+
+        for (int i = 1; i < size; i++)
+            if (counts[i] > counts[best])
+                best = i;
+
+        return values[best];
+    }
+
+    // Every value that shares the highest count, in first-seen order
+    public double[] getModes()
+    {
+        int max = getMaxCount();
+        int modeCount = 0;
+
+        for (int i = 0; i < size; i++)
+            if (counts[i] == max)
+                modeCount++;
+
+        double[] modes = new double[modeCount];
+        int next = 0;
+
+        for (int i = 0; i < size; i++)
+            if (counts[i] == max)
+                modes[next++] = values[i];
+
+        return modes;
+    }
+
+    // The k most frequent values, highest count first (ties keep first-seen order)
+    public double[] topK(int k)
+    {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative.");
+
+        k = Math.min(k, size);
+
+        // Min-heap of entry indices holding the best k seen so far
+        int[] heap = new int[k];
+        int heapSize = 0;
+
+        for (int i = 0; i < size && k > 0; i++)
+        {
+            if (heapSize < k)
+            {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize);
+                heapSize++;
+            }
+            else if (ranksAbove(i, heap[0]))
+            {
+                heap[0] = i;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+
+        // Pop the heap from the weakest entry to the strongest
+        double[] result = new double[k];
+
+        for (int i = k - 1; i >= 0; i--)
+        {
+            result[i] = values[heap[0]];
+            heapSize--;
+            heap[0] = heap[heapSize];
+            siftDown(heap, 0, heapSize);
+        }
+
+        return result;
+    }
+
+    // True if entry a belongs ahead of entry b (higher count, or same count but seen first)
+    private boolean ranksAbove(int a, int b)
+    {
+        return counts[a] > counts[b] || (counts[a] == counts[b] && a < b);
+    }
+
+    // Heap helpers (the root is the entry that ranks lowest)
+    private void siftUp(int[] heap, int index)
+    {
+        while (index > 0)
+        {
+            int parent = (index - 1) / 2;
+
+            if (!ranksAbove(heap[parent], heap[index]))
+                break;
+
+            int temp = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = temp;
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize)
+    {
+        while (true)
+        {
+            int left = 2 * index + 1;
+            int right = left + 1;
+            int lowest = index;
+
+            if (left < heapSize && ranksAbove(heap[lowest], heap[left]))
+                lowest = left;
+            if (right < heapSize && ranksAbove(heap[lowest], heap[right]))
+                lowest = right;
+
+            if (lowest == index)
+                return;
+
+            int temp = heap[lowest];
+            heap[lowest] = heap[index];
+            heap[index] = temp;
+            index = lowest;
+        }
+    }
+
+    // Double the index and re-insert every entry
+    private void rehash()
+    {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        mask = slots.length - 1;
+
+        for (int entry = 0; entry < size; entry++)
+        {
+            int slot = hash(Double.doubleToLongBits(values[entry])) & mask;
+
+            while (slots[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+
+            slots[slot] = entry;
+        }
+    }
+
+    // Mix the bits so nearby doubles do not cluster in the table
+    private static int hash(long bits)
+    {
+        bits ^= bits >>> 33;
+        bits *= 0xff51afd7ed558ccdL;
+        bits ^= bits >>> 33;
+        return (int) bits;
+    }
+
+    // Make sure an index points at a distinct value
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+            throw new IllegalArgumentException("Invalid table index.");
+    }
+}
@@ -0,0 +1,133 @@
+//MomentAccumulator
+//Single-pass running moments (count, mean, variance, skewness, kurtosis) using the Welford/Pebay
+//update formulas. Accumulators can be merged so partial results from threads or files can be combined.
+
+public class MomentAccumulator
+{
+	// Running count, mean and central moment sums (M2 = sum (x - mean)^2, etc.)
+    private long n;
+    private double mean;
+    private double m2;
+    private double m3;
+    private double m4;
+
+    // Empty accumulator
+    public MomentAccumulator()
+    {
+    }
+
+    // Add a single value
+    public void add(double x)
+    {
+        long n1 = n;
+        n++;
+
+        double delta = x - mean;
+        double deltaN = delta / n;
+        double deltaN2 = deltaN * deltaN;
+        double term1 = delta * deltaN * n1;
+
+        // Update the higher moments first since they depend on the old M2 and M3
+        mean += deltaN;
+        m4 += term1 * deltaN2 * ((double) n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term1 * deltaN * (n - 2) - 3 * deltaN * m2;
+        m2 += term1;
+    }
+
+    // Add every value of an array
+    public void addAll(double[] values)
+    {
+        addAll(values, 0, values.length);
+    }
+
+    // Add every value of an array slice
+    public void addAll(double[] values, int offset, int length)
+    {
+        if (offset < 0 || length < 0 || offset > values.length - length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+
+        for (int i = offset; i < offset + length; i++)
+            add(values[i]);
+    }
+
+    // Combine another accumulator into this one (Pebay's pairwise formulas)
+    public void merge(MomentAccumulator other)
+    {
+        if (other.n == 0)
+            return;
+
+        if (n == 0)
+        {
+            n = other.n;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+            return;
+        }
+
+        double na = n;
+        double nb = other.n;
+        double total = na + nb;
+        double delta = other.mean - mean;
+        double delta2 = delta * delta;
+        double delta3 = delta2 * delta;
+        double delta4 = delta2 * delta2;
+
+        double newM4 = m4 + other.m4
+                + delta4 * na * nb * (na * na - na * nb + nb * nb) / (total * total * total)
+                + 6.0 * delta2 * (na * na * other.m2 + nb * nb * m2) / (total * total)
+                + 4.0 * delta * (na * other.m3 - nb * m3) / total;
+        double newM3 = m3 + other.m3
+                + delta3 * na * nb * (na - nb) / (total * total)
+                + 3.0 * delta * (na * other.m2 - nb * m2) / total;
+        double newM2 = m2 + other.m2 + delta2 * na * nb / total;
+
+        n += other.n;
+        mean += delta * nb / total;
+        m2 = newM2;
+        m3 = newM3;
+        m4 = newM4;
+    }
+
+    // Getters
+
+    public long getCount() {
+        return n;
+    }
+
+    public double getMean() {
+        return n == 0 ? Double.NaN : mean;
+    }
+
+    // Population variance (divides by n, same as StatsLibrary.findVariance)
+    public double getVariance() {
+        return n == 0 ? Double.NaN : m2 / n;
+    }
+
+    // Sample variance (divides by n - 1)
+    public double getSampleVariance() {
+        return n < 2 ? Double.NaN : m2 / (n - 1);
+    }
+
+    // Sample standard deviation (same as StatsLibrary.findStandardDeviation)
+    public double getStandardDeviation() {
+        return Math.sqrt(getSampleVariance());
+    }
+
+    // Population skewness (g1)
+    public double getSkewness() {
+        if (n == 0 || m2 == 0)
+            return Double.NaN;
+
+        return Math.sqrt((double) n) * m3 / Math.pow(m2, 1.5);
+    }
+
+    // Excess kurtosis (g2), 0 for a normal distribution
+    public double getKurtosis() {
+        if (n == 0 || m2 == 0)
+            return Double.NaN;
+
+        return n * m4 / (m2 * m2) - 3.0;
+    }
+}
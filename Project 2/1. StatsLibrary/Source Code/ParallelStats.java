@@ -0,0 +1,590 @@
+import java.nio.DoubleBuffer;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+
+//ParallelStats
+//Sum, mean, variance, min, max, correlation and moments split into fork/join tasks for very large datasets.
+//The data is always cut into the same fixed-size leaves and the partial results are merged in the same tree
+//order, so the answer depends only on the data (never on thread count or timing). Small inputs, and
+//calls made with fork off, run the same tree on the calling thread, which makes parallel and sequential results
+//bit-for-bit identical.
+//Buffers without a backing array (direct or memory-mapped) are read one leaf at a time with an absolute bulk get
+//into a leaf-sized copy, so they go through the same tree and give the same answer as an array holding the same
+//values, and their position is never moved.
+//Inside a leaf values are summed in short blocks, so rounding error grows with log(n) instead of n.
+
+public final class ParallelStats
+{
+	// Below this many values everything stays on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Values per fork/join leaf (a leaf is never split further)
+    private static final int LEAF_SIZE = 1 << 13;
+
+    // Values per naive partial sum inside a leaf
+    private static final int BLOCK_SIZE = 128;
+
+    // Static helper class, no objects needed
+    private ParallelStats()
+    {
+    }
+
+    // Sum of a slice
+    public static double sum(double[] values, int offset, int length)
+    {
+        return sum(values, offset, length, true);
+    }
+
+    // Sum of a slice, kept on the calling thread unless fork is set (same tree, same answer either way)
+    public static double sum(double[] values, int offset, int length, boolean fork)
+    {
+        checkSlice(values, offset, length);
+        return reduce(new Sums(values, null, 0), offset, length, fork)[0];
+    }
+
+    // Mean of a slice (NaN when empty, same as StatsLibrary.findMean)
+    public static double mean(double[] values, int offset, int length)
+    {
+        return mean(values, offset, length, true);
+    }
+
+    public static double mean(double[] values, int offset, int length, boolean fork)
+    {
+        return sum(values, offset, length, fork) / length;
+    }
+
+    // Population variance of a slice (divides by n), two passes for accuracy
+    public static double variance(double[] values, int offset, int length)
+    {
+        return variance(values, offset, length, true);
+    }
+
+    public static double variance(double[] values, int offset, int length, boolean fork)
+    {
+        checkNotEmpty(values, offset, length);
+        return squaredDeviations(values, offset, length, fork) / length;
+    }
+
+    // Sample variance of a slice (divides by n - 1)
+    public static double sampleVariance(double[] values, int offset, int length)
+    {
+        return sampleVariance(values, offset, length, true);
+    }
+
+    public static double sampleVariance(double[] values, int offset, int length, boolean fork)
+    {
+        checkNotEmpty(values, offset, length);
+        return squaredDeviations(values, offset, length, fork) / (length - 1);
+    }
+
+    // Sample standard deviation of a slice (same as StatsLibrary.findStandardDeviation)
+    public static double standardDeviation(double[] values, int offset, int length)
+    {
+        return standardDeviation(values, offset, length, true);
+    }
+
+    public static double standardDeviation(double[] values, int offset, int length, boolean fork)
+    {
+        return Math.sqrt(sampleVariance(values, offset, length, fork));
+    }
+
+    // Smallest value of a slice (NaN if the slice contains NaN)
+    public static double min(double[] values, int offset, int length)
+    {
+        checkNotEmpty(values, offset, length);
+        return reduce(new Range(values), offset, length, true)[0];
+    }
+
+    // Largest value of a slice (NaN if the slice contains NaN)
+    public static double max(double[] values, int offset, int length)
+    {
+        checkNotEmpty(values, offset, length);
+        return reduce(new Range(values), offset, length, true)[1];
+    }
+
+    // Pearson correlation of two equal-length slices
+    public static double correlation(double[] x, int xOffset, double[] y, int yOffset, int length)
+    {
+        return correlation(x, xOffset, y, yOffset, length, true);
+    }
+
+    public static double correlation(double[] x, int xOffset, double[] y, int yOffset, int length, boolean fork)
+    {
+        checkSlice(x, xOffset, length);
+        checkSlice(y, yOffset, length);
+
+        // Both slices are indexed relative to x, so y is read with a shift
+        int shift = yOffset - xOffset;
+
+        double[] means = reduce(new Sums(x, y, shift), xOffset, length, fork);
+        double meanX = means[0] / length;
+        double meanY = means[1] / length;
+
+        double[] products = reduce(new Products(x, y, shift, meanX, meanY), xOffset, length, fork);
+        return products[0] / (Math.sqrt(products[1]) * Math.sqrt(products[2]));
+    }
+
+    // Count, mean, variance, skewness and kurtosis of a slice, one accumulator per leaf merged together
+    public static MomentAccumulator moments(double[] values, int offset, int length)
+    {
+        return moments(values, offset, length, true);
+    }
+
+    public static MomentAccumulator moments(double[] values, int offset, int length, boolean fork)
+    {
+        checkSlice(values, offset, length);
+
+        if (length == 0)
+            return new MomentAccumulator();
+
+        return reduce(new Moments(values), offset, length, fork);
+    }
+
+    // Sum of a buffer between position and limit
+    public static double sum(DoubleBuffer values, boolean fork)
+    {
+        if (values.hasArray())
+            return sum(values.array(), values.arrayOffset() + values.position(), values.remaining(), fork);
+
+        return reduce(new BufferLeaves<>(values, null, 0, (x, y) -> new Sums(x, null, 0)), values.position(), values.remaining(), fork)[0];
+    }
+
+    // Mean of a buffer (NaN when empty)
+    public static double mean(DoubleBuffer values, boolean fork)
+    {
+        return sum(values, fork) / values.remaining();
+    }
+
+    // Population variance of a buffer
+    public static double variance(DoubleBuffer values, boolean fork)
+    {
+        checkNotEmpty(values);
+        return squaredDeviations(values, fork) / values.remaining();
+    }
+
+    // Sample variance of a buffer
+    public static double sampleVariance(DoubleBuffer values, boolean fork)
+    {
+        checkNotEmpty(values);
+        return squaredDeviations(values, fork) / (values.remaining() - 1);
+    }
+
+    // Sample standard deviation of a buffer
+    public static double standardDeviation(DoubleBuffer values, boolean fork)
+    {
+        return Math.sqrt(sampleVariance(values, fork));
+    }
+
+    // Smallest value of a buffer
+    public static double min(DoubleBuffer values, boolean fork)
+    {
+        checkNotEmpty(values);
+        return range(values, fork)[0];
+    }
+
+    // Largest value of a buffer
+    public static double max(DoubleBuffer values, boolean fork)
+    {
+        checkNotEmpty(values);
+        return range(values, fork)[1];
+    }
+
+    // Pearson correlation of two buffers, paired from each position over the values left in x
+    public static double correlation(DoubleBuffer x, DoubleBuffer y, boolean fork)
+    {
+        int length = x.remaining();
+
+        if (y.remaining() < length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+
+        if (x.hasArray() && y.hasArray())
+            return correlation(x.array(), x.arrayOffset() + x.position(), y.array(), y.arrayOffset() + y.position(), length, fork);
+
+        int shift = y.position() - x.position();
+
+        double[] means = reduce(new BufferLeaves<>(x, y, shift, (xs, ys) -> new Sums(xs, ys, 0)), x.position(), length, fork);
+        double meanX = means[0] / length;
+        double meanY = means[1] / length;
+
+        double[] products = reduce(new BufferLeaves<>(x, y, shift, (xs, ys) -> new Products(xs, ys, 0, meanX, meanY)), x.position(), length, fork);
+        return products[0] / (Math.sqrt(products[1]) * Math.sqrt(products[2]));
+    }
+
+    // Moments of a buffer
+    public static MomentAccumulator moments(DoubleBuffer values, boolean fork)
+    {
+        if (values.hasArray())
+            return moments(values.array(), values.arrayOffset() + values.position(), values.remaining(), fork);
+
+        if (!values.hasRemaining())
+            return new MomentAccumulator();
+
+        return reduce(new BufferLeaves<>(values, null, 0, (x, y) -> new Moments(x)), values.position(), values.remaining(), fork);
+    }
+
+    // Sum of (x - mean)^2 over a buffer
+    private static double squaredDeviations(DoubleBuffer values, boolean fork)
+    {
+        if (values.hasArray())
+            return squaredDeviations(values.array(), values.arrayOffset() + values.position(), values.remaining(), fork);
+
+        double mean = sum(values, fork) / values.remaining();
+        return reduce(new BufferLeaves<>(values, null, 0, (x, y) -> new SquaredDeviations(x, mean)), values.position(), values.remaining(), fork)[0];
+    }
+
+    // {min, max} of a non-empty buffer
+    private static double[] range(DoubleBuffer values, boolean fork)
+    {
+        if (values.hasArray())
+            return reduce(new Range(values.array()), values.arrayOffset() + values.position(), values.remaining(), fork);
+
+        return reduce(new BufferLeaves<>(values, null, 0, (x, y) -> new Range(x)), values.position(), values.remaining(), fork);
+    }
+
+    // Sum of (x - mean)^2 over a slice
+    private static double squaredDeviations(double[] values, int offset, int length, boolean fork)
+    {
+        double mean = sum(values, offset, length, fork) / length;
+        return reduce(new SquaredDeviations(values, mean), offset, length, fork)[0];
+    }
+
+    // Run a reduction over [offset, offset + length), forking only when asked to and the input is large enough
+    private static <T> T reduce(Reducer<T> reducer, int offset, int length, boolean fork)
+    {
+        return new ReduceTask<>(reducer, offset, offset + length, fork && length >= PARALLEL_THRESHOLD).invoke();
+    }
+
+    // Where a range is cut in two. Cuts fall on leaf boundaries counted from the start of the range,
+    // so the tree only depends on the range itself
+    private static int split(int from, int to)
+    {
+        int leaves = (to - from + LEAF_SIZE - 1) / LEAF_SIZE;
+        return from + (leaves / 2) * LEAF_SIZE;
+    }
+
+    // Make sure an offset/length pair fits inside the array
+    private static void checkSlice(double[] values, int offset, int length)
+    {
+        if (values == null)
+            throw new IllegalArgumentException("Data set is empty.");
+
+        if (offset < 0 || length < 0 || offset > values.length - length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+    }
+
+    // Same as checkSlice but also rejects empty slices
+    private static void checkNotEmpty(double[] values, int offset, int length)
+    {
+        checkSlice(values, offset, length);
+
+        if (length == 0)
+            throw new IllegalArgumentException("Data set is empty.");
+    }
+
+    // Rejects missing or empty buffers
+    private static void checkNotEmpty(DoubleBuffer values)
+    {
+        if (values == null || !values.hasRemaining())
+            throw new IllegalArgumentException("Data set is empty.");
+    }
+
+    // One kind of reduction: how to reduce a single leaf and how to merge two partial results
+    private interface Reducer<T>
+    {
+        T leaf(int from, int to);
+
+        T merge(T left, T right);
+    }
+
+    // Fork/join node. Splits down to leaves, and the left half is always merged before the right one
+    private static final class ReduceTask<T> extends RecursiveTask<T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Reducer<T> reducer;
+        private final int from;
+        private final int to;
+        private final boolean fork;
+
+        ReduceTask(Reducer<T> reducer, int from, int to, boolean fork)
+        {
+            this.reducer = reducer;
+            this.from = from;
+            this.to = to;
+            this.fork = fork;
+        }
+
+        @Override
+        protected T compute()
+        {
+            if (to - from <= LEAF_SIZE)
+                return reducer.leaf(from, to);
+
+            int mid = split(from, to);
+            ReduceTask<T> left = new ReduceTask<>(reducer, from, mid, fork);
+            ReduceTask<T> right = new ReduceTask<>(reducer, mid, to, fork);
+
+            if (!fork)
+                return reducer.merge(left.compute(), right.compute());
+
+            left.fork();
+            T rightResult = right.compute();
+            return reducer.merge(left.join(), rightResult);
+        }
+    }
+
+    // Runs one of the array reductions over buffers: each leaf is copied out with an absolute bulk get and reduced
+    // from index 0 of the copy, which cuts it into the same blocks as reducing the array in place would
+    private static final class BufferLeaves<T> implements Reducer<T>
+    {
+        private final DoubleBuffer x;
+        private final DoubleBuffer y;
+        private final int shift;
+        private final BiFunction<double[], double[], Reducer<T>> reducer;
+
+        // Array reducer that only merges (merging never touches the values)
+        private final Reducer<T> merger;
+
+        BufferLeaves(DoubleBuffer x, DoubleBuffer y, int shift, BiFunction<double[], double[], Reducer<T>> reducer)
+        {
+            this.x = x;
+            this.y = y;
+            this.shift = shift;
+            this.reducer = reducer;
+            this.merger = reducer.apply(null, null);
+        }
+
+        @Override
+        public T leaf(int from, int to)
+        {
+            double[] xs = new double[to - from];
+            x.get(from, xs);
+
+            double[] ys = null;
+            if (y != null)
+            {
+                ys = new double[to - from];
+                y.get(from + shift, ys);
+            }
+
+            return reducer.apply(xs, ys).leaf(0, to - from);
+        }
+
+        @Override
+        public T merge(T left, T right)
+        {
+            return merger.merge(left, right);
+        }
+    }
+
+    // Plain sums: {sum x, sum y} (the y sum stays 0 without a second array)
+    private static final class Sums implements Reducer<double[]>
+    {
+        private final double[] x;
+        private final double[] y;
+        private final int shift;
+
+        Sums(double[] x, double[] y, int shift)
+        {
+            this.x = x;
+            this.y = y;
+            this.shift = shift;
+        }
+
+        @Override
+        public double[] leaf(int from, int to)
+        {
+            double totalX = 0.0;
+            double totalY = 0.0;
+
+            for (int start = from; start < to; start += BLOCK_SIZE)
+            {
+                int end = Math.min(start + BLOCK_SIZE, to);
+                double blockX = 0.0;
+                double blockY = 0.0;
+
+                for (int i = start; i < end; i++)
+                    blockX += x[i];
+
+                if (y != null)
+                    for (int i = start; i < end; i++)
+                        blockY += y[i + shift];
+
+                totalX += blockX;
+                totalY += blockY;
+            }
+
+            return new double[] { totalX, totalY };
+        }
+
+        @Override
+        public double[] merge(double[] left, double[] right)
+        {
+            left[0] += right[0];
+            left[1] += right[1];
+            return left;
+        }
+    }
+
+    // Squared deviations from a fixed center: {sum (x - center)^2}
+    private static final class SquaredDeviations implements Reducer<double[]>
+    {
+        private final double[] values;
+        private final double center;
+
+        SquaredDeviations(double[] values, double center)
+        {
+            this.values = values;
+            this.center = center;
+        }
+
+        @Override
+        public double[] leaf(int from, int to)
+        {
+            double total = 0.0;
+
+            for (int start = from; start < to; start += BLOCK_SIZE)
+            {
+                int end = Math.min(start + BLOCK_SIZE, to);
+                double block = 0.0;
+
+                for (int i = start; i < end; i++)
+                {
+                    double d = values[i] - center;
+                    block += d * d;
+                }
+
+                total += block;
+            }
+
+            return new double[] { total };
+        }
+
+        @Override
+        public double[] merge(double[] left, double[] right)
+        {
+            left[0] += right[0];
+            return left;
+        }
+    }
+
+    // Centered cross products for correlation: {sum dx dy, sum dx^2, sum dy^2}
+    private static final class Products implements Reducer<double[]>
+    {
+        private final double[] x;
+        private final double[] y;
+        private final int shift;
+        private final double meanX;
+        private final double meanY;
+
+        Products(double[] x, double[] y, int shift, double meanX, double meanY)
+        {
+            this.x = x;
+            this.y = y;
+            this.shift = shift;
+            this.meanX = meanX;
+            this.meanY = meanY;
+        }
+
+        @Override
+        public double[] leaf(int from, int to)
+        {
+            double totalXY = 0.0;
+            double totalXX = 0.0;
+            double totalYY = 0.0;
+
+            for (int start = from; start < to; start += BLOCK_SIZE)
+            {
+                int end = Math.min(start + BLOCK_SIZE, to);
+                double blockXY = 0.0;
+                double blockXX = 0.0;
+                double blockYY = 0.0;
+
+                for (int i = start; i < end; i++)
+                {
+                    double dx = x[i] - meanX;
+                    double dy = y[i + shift] - meanY;
+
+                    blockXY += dx * dy;
+                    blockXX += dx * dx;
+                    blockYY += dy * dy;
+                }
+
+                totalXY += blockXY;
+                totalXX += blockXX;
+                totalYY += blockYY;
+            }
+
+            return new double[] { totalXY, totalXX, totalYY };
+        }
+
+        @Override
+        public double[] merge(double[] left, double[] right)
+        {
+            for (int i = 0; i < left.length; i++)
+                left[i] += right[i];
+
+            return left;
+        }
+    }
+
+    // Smallest and largest value: {min, max}
+    private static final class Range implements Reducer<double[]>
+    {
+        private final double[] values;
+
+        Range(double[] values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        public double[] leaf(int from, int to)
+        {
+            double min = values[from];
+            double max = values[from];
+
+            for (int i = from + 1; i < to; i++)
+            {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+
+            return new double[] { min, max };
+        }
+
+        @Override
+        public double[] merge(double[] left, double[] right)
+        {
+            left[0] = Math.min(left[0], right[0]);
+            left[1] = Math.max(left[1], right[1]);
+            return left;
+        }
+    }
+
+    // Higher moments, using MomentAccumulator's own merge formulas
+    private static final class Moments implements Reducer<MomentAccumulator>
+    {
+        private final double[] values;
+
+        Moments(double[] values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        public MomentAccumulator leaf(int from, int to)
+        {
+            MomentAccumulator moments = new MomentAccumulator();
+            moments.addAll(values, from, to - from);
+            return moments;
+        }
+
+        @Override
+        public MomentAccumulator merge(MomentAccumulator left, MomentAccumulator right)
+        {
+            left.merge(right);
+            return left;
+        }
+    }
+}
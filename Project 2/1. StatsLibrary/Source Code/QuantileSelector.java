@@ -0,0 +1,243 @@
+import java.util.Arrays;
+
+//QuantileSelector
+//Selection engine for medians and quantiles. Uses introselect (quickselect with a depth limit that falls
+//back to sorting) on a scratch copy, so it runs in O(n) expected time and never reorders the caller's data.
+
+public final class QuantileSelector
+{
+	// Ranges at or below this size are finished with an insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    // Static helper class, no objects needed
+    private QuantileSelector()
+    {
+    }
+
+    // Median of a slice. Scratch may be null or too small, in which case a new buffer is allocated
+    public static double median(double[] data, int offset, int length, double[] scratch)
+    {
+        checkSlice(data, offset, length);
+
+        if (length == 0)
+            throw new IllegalArgumentException("Data set is empty.");
+
+        double[] work = copyToScratch(data, offset, length, scratch);
+        int size = length - moveNaNsToEnd(work, length);
+
+        // NaNs sort last, so a NaN in the middle means the median is NaN (same as sorting)
+        int upper = length / 2;
+        if (upper >= size)
+            return Double.NaN;
+
+        double m2 = select(work, 0, size, upper);
+
+        // If odd, return the middle value
+        if (length % 2 != 0)
+            return m2;
+
+        // If even, the lower middle is the largest value left of the upper middle
+        double m1 = max(work, 0, upper);
+        return (m1 + m2) / 2.0;
+    }
+
+    // Quantile of a slice using linear interpolation between closest ranks (p between 0 and 1)
+    public static double quantile(double[] data, int offset, int length, double p, double[] scratch)
+    {
+        return quantiles(data, offset, length, new double[] { p }, scratch)[0];
+    }
+
+    // Several quantiles of a slice from one scratch copy. Results line up with the order of ps
+    public static double[] quantiles(double[] data, int offset, int length, double[] ps, double[] scratch)
+    {
+        checkSlice(data, offset, length);
+
+        if (length == 0)
+            throw new IllegalArgumentException("Data set is empty.");
+
+        for (double p : ps)
+            if (!(p >= 0.0 && p <= 1.0))
+                throw new IllegalArgumentException("Quantile probability must be between 0 and 1.");
+
+        double[] work = copyToScratch(data, offset, length, scratch);
+        int size = length - moveNaNsToEnd(work, length);
+
+        // Collect every rank we need (floor and ceiling of each position) in ascending order
+        int[] ranks = new int[ps.length * 2];
+        for (int i = 0; i < ps.length; i++)
+        {
+            double h = (length - 1) * ps[i];
+            ranks[2 * i] = (int) Math.floor(h);
+            ranks[2 * i + 1] = Math.min((int) Math.ceil(h), length - 1);
+        }
+
+        int[] sortedRanks = ranks.clone();
+        Arrays.sort(sortedRanks);
+
+        // Each selection leaves larger values to its right, so the next rank only searches that part
+        int from = 0;
+        for (int i = 0; i < sortedRanks.length; i++)
+        {
+            int k = sortedRanks[i];
+
+            if (k >= size || (i > 0 && k == sortedRanks[i - 1]))
+                continue;
+
+            select(work, from, size, k);
+            from = k + 1;
+        }
+
+        double[] result = new double[ps.length];
+        for (int i = 0; i < ps.length; i++)
+        {
+            int lo = ranks[2 * i];
+            int hi = ranks[2 * i + 1];
+
+            if (hi >= size)
+            {
+                result[i] = Double.NaN;
+                continue;
+            }
+
+            double fraction = (length - 1) * ps[i] - lo;
+            result[i] = (lo == hi) ? work[lo] : work[lo] + fraction * (work[hi] - work[lo]);
+        }
+
+        return result;
+    }
+
+    // Rearrange values[from, to) in place so values[k] holds the k-th smallest value,
+    // with smaller-or-equal values before it and larger-or-equal after it. Returns that value
+    public static double select(double[] values, int from, int to, int k)
+    {
+        if (from < 0 || to > values.length || k < from || k >= to)
+            throw new IllegalArgumentException("Invalid selection bounds.");
+
+        // Depth limit keeps the worst case at O(n log n) instead of O(n^2)
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        int lo = from;
+        int hi = to - 1;
+
+        while (hi - lo > INSERTION_SORT_THRESHOLD)
+        {
+            if (depthLimit-- == 0)
+            {
+                Arrays.sort(values, lo, hi + 1);
+                return values[k];
+            }
+
+            // Median-of-three pivot, also moves the smallest and largest of the three to the ends
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < values[lo])
+                swap(values, mid, lo);
+            if (values[hi] < values[lo])
+                swap(values, hi, lo);
+            if (values[hi] < values[mid])
+                swap(values, hi, mid);
+            double pivot = values[mid];
+
+            // Hoare partition of the range between the two sentinels
+            int i = lo;
+            int j = hi;
+            while (i <= j)
+            {
+                while (values[i] < pivot)
+                    i++;
+                while (values[j] > pivot)
+                    j--;
+
+                if (i <= j)
+                {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            // Keep only the side that contains k
+            if (k <= j)
+                hi = j;
+            else if (k >= i)
+                lo = i;
+            else
+                return values[k];
+        }
+
+        insertionSort(values, lo, hi);
+        return values[k];
+    }
+
+    // Copy the slice into scratch (or a new buffer if scratch cannot hold it)
+    private static double[] copyToScratch(double[] data, int offset, int length, double[] scratch)
+    {
+        double[] work = (scratch != null && scratch.length >= length) ? scratch : new double[length];
+        System.arraycopy(data, offset, work, 0, length);
+        return work;
+    }
+
+    // Move NaNs to the end of work[0, length) and return how many there were
+    private static int moveNaNsToEnd(double[] work, int length)
+    {
+        int end = length;
+
+        for (int i = 0; i < end; i++)
+        {
+            if (Double.isNaN(work[i]))
+            {
+                end--;
+                swap(work, i, end);
+                i--;
+            }
+        }
+
+        return length - end;
+    }
+
+    // Largest value of values[from, to)
+    private static double max(double[] values, int from, int to)
+    {
+        double max = values[from];
+
+        for (int i = from + 1; i < to; i++)
+            if (values[i] > max)
+                max = values[i];
+
+        return max;
+    }
+
+    // Insertion sort of values[lo, hi] inclusive
+    private static void insertionSort(double[] values, int lo, int hi)
+    {
+        for (int i = lo + 1; i <= hi; i++)
+        {
+            double value = values[i];
+            int j = i - 1;
+
+            while (j >= lo && values[j] > value)
+            {
+                values[j + 1] = values[j];
+                j--;
+            }
+
+            values[j + 1] = value;
+        }
+    }
+
+    // Swap two array elements
+    private static void swap(double[] values, int i, int j)
+    {
+        double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    // Make sure an offset/length pair fits inside the array
+    private static void checkSlice(double[] values, int offset, int length)
+    {
+        if (values == null)
+            throw new IllegalArgumentException("Data set is empty.");
+
+        if (offset < 0 || length < 0 || offset > values.length - length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+//SetOperations
+//Union, intersection and complement of two datasets in O(n + m). Unsorted inputs are counted with
+//FrequencyTable (a primitive hash table); inputs that are already sorted can use the merge versions.
+//With multiset = false each value appears at most once in the result. With multiset = true values keep
+//their multiplicity: union takes the larger count, intersection the smaller and complement the difference.
+
+public final class SetOperations
+{
+	// Which operation mergeSorted performs
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int COMPLEMENT = 2;
+
+    // Static helper class, no objects needed
+    private SetOperations()
+    {
+    }
+
+    // Union (first-seen order, values from a before values only in b)
+    public static double[] union(double[] a, double[] b, boolean multiset)
+    {
+        FrequencyTable countsA = FrequencyTable.of(a, 0, a.length);
+        FrequencyTable countsB = FrequencyTable.of(b, 0, b.length);
+        DoubleArrayBuilder result = new DoubleArrayBuilder(a.length + b.length);
+
+        // Every value of a, repeated max(countA, countB) times in multiset mode
+        for (int i = 0; i < countsA.size(); i++)
+        {
+            double value = countsA.getValue(i);
+            int copies = multiset ? Math.max(countsA.getCount(i), countsB.countOf(value)) : 1;
+            result.add(value, copies);
+        }
+
+        // Then the values that only b has
+        for (int i = 0; i < countsB.size(); i++)
+        {
+            double value = countsB.getValue(i);
+
+            if (countsA.countOf(value) == 0)
+                result.add(value, multiset ? countsB.getCount(i) : 1);
+        }
+
+        return result.toArray();
+    }
+
+    // Intersection (order of first appearance in a)
+    public static double[] intersection(double[] a, double[] b, boolean multiset)
+    {
+        FrequencyTable countsA = FrequencyTable.of(a, 0, a.length);
+        FrequencyTable countsB = FrequencyTable.of(b, 0, b.length);
+        DoubleArrayBuilder result = new DoubleArrayBuilder(Math.min(a.length, b.length));
+
+        for (int i = 0; i < countsA.size(); i++)
+        {
+            double value = countsA.getValue(i);
+            int inB = countsB.countOf(value);
+
+            if (inB > 0)
+                result.add(value, multiset ? Math.min(countsA.getCount(i), inB) : 1);
+        }
+
+        return result.toArray();
+    }
+
+    // Complement of b in a, meaning a minus b (order of first appearance in a)
+    public static double[] complement(double[] a, double[] b, boolean multiset)
+    {
+        FrequencyTable countsA = FrequencyTable.of(a, 0, a.length);
+        FrequencyTable countsB = FrequencyTable.of(b, 0, b.length);
+        DoubleArrayBuilder result = new DoubleArrayBuilder(a.length);
+
+        for (int i = 0; i < countsA.size(); i++)
+        {
+            double value = countsA.getValue(i);
+            int inB = countsB.countOf(value);
+
+            if (multiset)
+                result.add(value, countsA.getCount(i) - inB);
+            else if (inB == 0)
+                result.add(value, 1);
+        }
+
+        return result.toArray();
+    }
+
+    // Union of two ascending arrays (Arrays.sort order), result is ascending
+    public static double[] unionSorted(double[] a, double[] b, boolean multiset)
+    {
+        return mergeSorted(a, b, multiset, UNION);
+    }
+
+    // Intersection of two ascending arrays, result is ascending
+    public static double[] intersectionSorted(double[] a, double[] b, boolean multiset)
+    {
+        return mergeSorted(a, b, multiset, INTERSECTION);
+    }
+
+    // Complement (a minus b) of two ascending arrays, result is ascending
+    public static double[] complementSorted(double[] a, double[] b, boolean multiset)
+    {
+        return mergeSorted(a, b, multiset, COMPLEMENT);
+    }
+
+    // Walk both sorted arrays once, one run of equal values at a time
+    private static double[] mergeSorted(double[] a, double[] b, boolean multiset, int operation)
+    {
+        DoubleArrayBuilder result = new DoubleArrayBuilder(operation == UNION ? a.length + b.length : a.length);
+        int i = 0;
+        int j = 0;
+
+        while (i < a.length || j < b.length)
+        {
+            // Pick the smaller current value (Double.compare gives the same order as Arrays.sort)
+            double value;
+            if (j >= b.length)
+                value = a[i];
+            else if (i >= a.length)
+                value = b[j];
+            else
+                value = Double.compare(a[i], b[j]) <= 0 ? a[i] : b[j];
+
+            // Length of the run of this value in each array
+            int runA = 0;
+            while (i < a.length && Double.compare(a[i], value) == 0)
+            {
+                runA++;
+                i++;
+            }
+
+            int runB = 0;
+            while (j < b.length && Double.compare(b[j], value) == 0)
+            {
+                runB++;
+                j++;
+            }
+
+            int copies;
+            if (operation == UNION)
+                copies = multiset ? Math.max(runA, runB) : 1;
+            else if (operation == INTERSECTION)
+                copies = (runA > 0 && runB > 0) ? (multiset ? Math.min(runA, runB) : 1) : 0;
+            else
+                copies = multiset ? runA - runB : (runA > 0 && runB == 0 ? 1 : 0);
+
+            result.add(value, copies);
+        }
+
+        return result.toArray();
+    }
+
+    // Small growable double array used to collect results
+    private static final class DoubleArrayBuilder
+    {
+        private double[] data;
+        private int size;
+
+        DoubleArrayBuilder(int initialCapacity)
+        {
+            data = new double[Math.max(4, initialCapacity)];
+        }
+
+        // Append a value the given number of times (nothing if copies <= 0)
+        void add(double value, int copies)
+        {
+            if (copies <= 0)
+                return;
+
+            if (size + copies > data.length)
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + copies));
+
+            Arrays.fill(data, size, size + copies, value);
+            size += copies;
+        }
+
+        double[] toArray()
+        {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 import java.math.BigInteger;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.function.Function;
 
 // Chris Ricchi
@@ -9,100 +9,337 @@ import java.util.function.Function;
 
 public class StatsLibrary 
 {
+	// When true, large datasets are reduced with fork/join tasks (see ParallelStats)
+	private boolean parallel;
+	
+	// Turn parallel mode on or off (off by default)
+	public void setParallel(boolean parallel)
+	{
+		this.parallel = parallel;
+	}
+	
+	public boolean isParallel()
+	{
+		return parallel;
+	}
+	
+	// When true, sums use Neumaier compensated summation (see CompensatedSum)
+	private boolean compensated;
+	
+	// Turn compensated summation on or off (off by default). Parallel mode takes priority since it
+	// already sums in short blocks
+	public void setCompensated(boolean compensated)
+	{
+		this.compensated = compensated;
+	}
+	
+	public boolean isCompensated()
+	{
+		return compensated;
+	}
+	
 	// Mean
 	public double findMean(ArrayList<Double> userInputNumbers) 
 	{
-		double sum = 0;
+		return findMean(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// Mean (primitive array)
+	public double findMean(double[] userInputNumbers) 
+	{
+		return findMean(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Mean (primitive slice)
+	public double findMean(double[] userInputNumbers, int offset, int length) 
+	{
+		checkSlice(userInputNumbers, offset, length);
 		
-		// Sum up all elements
-		for (double singleElement : userInputNumbers) {
-			sum = sum + singleElement;
-		}
+		if (parallel)
+			return ParallelStats.mean(userInputNumbers, offset, length);
+		
+		if (compensated)
+			return CompensatedSum.sum(userInputNumbers, offset, length) / length;
+		
+		// Same blocked tree as parallel mode, just on this thread, so turning parallel on never changes the answer
+		return ParallelStats.mean(userInputNumbers, offset, length, false);
+	}
+	
+	// Mean (buffer view between position and limit)
+	public double findMean(DoubleBuffer userInputNumbers) 
+	{
+		// Heap buffers can go straight to the array version
+		if (userInputNumbers.hasArray())
+			return findMean(userInputNumbers.array(), userInputNumbers.arrayOffset() + userInputNumbers.position(), userInputNumbers.remaining());
+		
+		if (compensated && !parallel)
+			return compensatedSum(userInputNumbers) / userInputNumbers.remaining();
+		
+		// Direct and memory-mapped buffers are read a leaf at a time, the buffer position is left untouched
+		return ParallelStats.mean(userInputNumbers, parallel);
+	}
+	
+	// Sum (primitive array)
+	public double findSum(double[] userInputNumbers) 
+	{
+		return findSum(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Sum (primitive slice)
+	public double findSum(double[] userInputNumbers, int offset, int length) 
+	{
+		checkSlice(userInputNumbers, offset, length);
+		
+		if (parallel)
+			return ParallelStats.sum(userInputNumbers, offset, length);
+		
+		if (compensated)
+			return CompensatedSum.sum(userInputNumbers, offset, length);
+		
+		return ParallelStats.sum(userInputNumbers, offset, length, false);
+	}
+	
+	// Sum (buffer view between position and limit)
+	public double findSum(DoubleBuffer userInputNumbers) 
+	{
+		if (userInputNumbers.hasArray())
+			return findSum(userInputNumbers.array(), userInputNumbers.arrayOffset() + userInputNumbers.position(), userInputNumbers.remaining());
 		
-		// Storing a value for clarity
-		double result = sum / userInputNumbers.size();
+		if (compensated && !parallel)
+			return compensatedSum(userInputNumbers);
 		
-		return result;
+		return ParallelStats.sum(userInputNumbers, parallel);
+	}
+	
+	// Minimum (primitive array)
+	public double findMin(double[] userInputNumbers) 
+	{
+		return findMin(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Minimum (primitive slice)
+	public double findMin(double[] userInputNumbers, int offset, int length) 
+	{
+		checkSlice(userInputNumbers, offset, length);
+		
+		if (length == 0)
+			throw new IllegalArgumentException("Data set is empty.");
+		
+		if (parallel)
+			return ParallelStats.min(userInputNumbers, offset, length);
+		
+		double min = userInputNumbers[offset];
+		
+		for (int i = offset + 1; i < offset + length; i++)
+			min = Math.min(min, userInputNumbers[i]);
+		
+		return min;
+	}
+	
+	// Minimum (buffer view between position and limit)
+	public double findMin(DoubleBuffer userInputNumbers) 
+	{
+		if (userInputNumbers.hasArray())
+			return findMin(userInputNumbers.array(), userInputNumbers.arrayOffset() + userInputNumbers.position(), userInputNumbers.remaining());
+		
+		return ParallelStats.min(userInputNumbers, parallel);
+	}
+	
+	// Maximum (primitive array)
+	public double findMax(double[] userInputNumbers) 
+	{
+		return findMax(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Maximum (primitive slice)
+	public double findMax(double[] userInputNumbers, int offset, int length) 
+	{
+		checkSlice(userInputNumbers, offset, length);
+		
+		if (length == 0)
+			throw new IllegalArgumentException("Data set is empty.");
+		
+		if (parallel)
+			return ParallelStats.max(userInputNumbers, offset, length);
+		
+		double max = userInputNumbers[offset];
+		
+		for (int i = offset + 1; i < offset + length; i++)
+			max = Math.max(max, userInputNumbers[i]);
+		
+		return max;
+	}
+	
+	// Maximum (buffer view between position and limit)
+	public double findMax(DoubleBuffer userInputNumbers) 
+	{
+		if (userInputNumbers.hasArray())
+			return findMax(userInputNumbers.array(), userInputNumbers.arrayOffset() + userInputNumbers.position(), userInputNumbers.remaining());
+		
+		return ParallelStats.max(userInputNumbers, parallel);
 	}
 	
 	// Median
 	public double findMedian(ArrayList<Double> userInputNumbers)
 	{
-		// Sort the ArrayList
-		Collections.sort(userInputNumbers);
-
-        int size = userInputNumbers.size();
-
-        // Check if the size is even or odd
-        if (size % 2 == 0) 
-        {
-        	// If even, average the two middle values
-        	double m1 = userInputNumbers.get((size - 1) / 2);
-            double m2 = userInputNumbers.get(size / 2);
-            return (m1 + m2) / 2.0;
-        } 
-
-        // If odd, return the middle value
-        else 
-        	return userInputNumbers.get(size / 2);
+		return findMedian(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// Median (primitive array)
+	public double findMedian(double[] userInputNumbers)
+	{
+		return findMedian(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Median (primitive slice)
+	public double findMedian(double[] userInputNumbers, int offset, int length)
+	{
+		return findMedian(userInputNumbers, offset, length, null);
+	}
+	
+	// Median (primitive slice, selection runs in the caller's scratch buffer when it is large enough)
+	public double findMedian(double[] userInputNumbers, int offset, int length, double[] scratch)
+	{
+		// Selection works on a copy so the caller's data keeps its order
+		return QuantileSelector.median(userInputNumbers, offset, length, scratch);
+	}
+	
+	// Median (buffer view between position and limit)
+	public double findMedian(DoubleBuffer userInputNumbers)
+	{
+		// The copy is already private, so it can double as the scratch buffer
+		double[] copy = toPrimitiveArray(userInputNumbers);
+		return QuantileSelector.median(copy, 0, copy.length, copy);
+	}
+	
+	// Quantile (p between 0 and 1, linear interpolation between closest ranks)
+	public double findQuantile(ArrayList<Double> userInputNumbers, double p)
+	{
+		double[] copy = toPrimitiveArray(userInputNumbers);
+		return QuantileSelector.quantile(copy, 0, copy.length, p, copy);
+	}
+	
+	// Quantile (primitive array)
+	public double findQuantile(double[] userInputNumbers, double p)
+	{
+		return QuantileSelector.quantile(userInputNumbers, 0, userInputNumbers.length, p, null);
+	}
+	
+	// Quantile (primitive slice with optional scratch buffer)
+	public double findQuantile(double[] userInputNumbers, int offset, int length, double p, double[] scratch)
+	{
+		return QuantileSelector.quantile(userInputNumbers, offset, length, p, scratch);
+	}
+	
+	// Several quantiles at once, results in the same order as ps
+	public double[] findQuantiles(double[] userInputNumbers, double[] ps)
+	{
+		return QuantileSelector.quantiles(userInputNumbers, 0, userInputNumbers.length, ps, null);
+	}
+	
+	// Several quantiles at once (primitive slice with optional scratch buffer)
+	public double[] findQuantiles(double[] userInputNumbers, int offset, int length, double[] ps, double[] scratch)
+	{
+		return QuantileSelector.quantiles(userInputNumbers, offset, length, ps, scratch);
 	}
 	
 	// Mode
 	public double findMode(ArrayList<Double> userInputNumbers)
 	{
-		// Start the mode at the first number in the list and track frequency
-		double mode = userInputNumbers.get(0);
-        int maxCount = 0;
-
-        // Iterate the list
-        for (int i = 0; i < userInputNumbers.size(); i++) 
-        {
-            double num = userInputNumbers.get(i);
-            
-            // Count can start at 1 because we know there's at least one occurrence
-            int count = 1;
-
-            // Use a nested for loop to compare our current number with the others in the list
-            for (int j = i + 1; j < userInputNumbers.size(); j++) 
-            {
-            	// If we find a match, we can increment the count
-                if (userInputNumbers.get(j).equals(num))
-                    count++;
-            }
-
-            // If the count for the current number is greater than the max count
-            if (count > maxCount) 
-            {
-                maxCount = count;
-                
-                // This number would be the new mode because it has a higher count
-                mode = num;
-            }
-        }
-
-        return mode;
+		return findMode(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// Mode (primitive array)
+	public double findMode(double[] userInputNumbers)
+	{
+		return findMode(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Mode (primitive slice)
+	public double findMode(double[] userInputNumbers, int offset, int length)
+	{
+		checkSlice(userInputNumbers, offset, length);
+		
+		if (length == 0)
+			throw new IllegalArgumentException("Data set is empty.");
+		
+		// Count every value once with a hash table; ties go to the value seen first
+		return FrequencyTable.of(userInputNumbers, offset, length).getMode();
+	}
+	
+	// Mode (buffer view between position and limit)
+	public double findMode(DoubleBuffer userInputNumbers)
+	{
+		return findMode(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// All modes (every value that shares the highest count, in first-seen order)
+	public double[] findModes(ArrayList<Double> userInputNumbers)
+	{
+		return findModes(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// All modes (primitive array)
+	public double[] findModes(double[] userInputNumbers)
+	{
+		return findFrequencyTable(userInputNumbers).getModes();
+	}
+	
+	// Frequency table of every distinct value, can be reused for histograms and top-k
+	public FrequencyTable findFrequencyTable(ArrayList<Double> userInputNumbers)
+	{
+		return findFrequencyTable(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// Frequency table (primitive array)
+	public FrequencyTable findFrequencyTable(double[] userInputNumbers)
+	{
+		return findFrequencyTable(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Frequency table (primitive slice)
+	public FrequencyTable findFrequencyTable(double[] userInputNumbers, int offset, int length)
+	{
+		checkSlice(userInputNumbers, offset, length);
+		return FrequencyTable.of(userInputNumbers, offset, length);
+	}
+	
+	// The k most frequent values, highest count first
+	public double[] findMostFrequent(double[] userInputNumbers, int k)
+	{
+		return findFrequencyTable(userInputNumbers).topK(k);
 	}
 	
 	// Standard Deviation
 	public double findStandardDeviation(ArrayList<Double> userInputNumbers) 
 	{
-	    int n = userInputNumbers.size();
+		return findStandardDeviation(toPrimitiveArray(userInputNumbers));
+	}
+	
+	// Standard Deviation (primitive array)
+	public double findStandardDeviation(double[] userInputNumbers) 
+	{
+		return findStandardDeviation(userInputNumbers, 0, userInputNumbers.length);
+	}
+	
+	// Standard Deviation (primitive slice)
+	public double findStandardDeviation(double[] userInputNumbers, int offset, int length) 
+	{
+	    checkSlice(userInputNumbers, offset, length);
 	    
-	    // Calculate the mean of the list
-	    double sum = 0.0;
-	    for (double number : userInputNumbers)
-	        sum += number;
-
-	    double mean = sum / n;
+	    if (parallel)
+	        return ParallelStats.standardDeviation(userInputNumbers, offset, length);
 	    
-	    // Calculate the squared difference between each number and the mean
-	    double squareSum = 0.0;
+	    if (!compensated)
+	        return ParallelStats.standardDeviation(userInputNumbers, offset, length, false);
 	    
-	    for (double num : userInputNumbers) 
-	    {
-	        double d = num - mean;
-	        squareSum += d * d;
-	    }
+	    int n = length;
+	    
+	    // Calculate the mean of the slice
+	    double mean = findMean(userInputNumbers, offset, length);
+	    
+	    // Calculate the squared difference between each number and the mean
+	    double squareSum = CompensatedSum.sumOfSquaredDeviations(userInputNumbers, offset, length, mean);
 	    
 	    // Calculate the mean of those squared differences
 	    double meanSqD = squareSum / (n - 1);
@@ -110,52 +347,152 @@ public class StatsLibrary
 	    return Math.sqrt(meanSqD);
 	}
 	
+	// Standard Deviation (buffer view between position and limit)
+	public double findStandardDeviation(DoubleBuffer userInputNumbers) 
+	{
+		if (userInputNumbers.hasArray())
+			return findStandardDeviation(userInputNumbers.array(), userInputNumbers.arrayOffset() + userInputNumbers.position(), userInputNumbers.remaining());
+		
+		if (!compensated || parallel)
+			return ParallelStats.standardDeviation(userInputNumbers, parallel);
+		
+		int start = userInputNumbers.position();
+		int n = userInputNumbers.remaining();
+		double mean = findMean(userInputNumbers);
+		CompensatedSum squareSum = new CompensatedSum();
+		
+		for (int i = start; i < start + n; i++) 
+		{
+			double d = userInputNumbers.get(i) - mean;
+			squareSum.add(d * d);
+		}
+		
+		return Math.sqrt(squareSum.getSum() / (n - 1));
+	}
+	
 	// Find variance of a dataset
 	public double findVariance(ArrayList<Double> data) 
 	{
 	    if (data == null || data.isEmpty())
 	        throw new IllegalArgumentException("Data set is empty.");
 
+	    return findVariance(toPrimitiveArray(data));
+	}
+	
+	// Find variance of a dataset (primitive array)
+	public double findVariance(double[] data) 
+	{
+	    if (data == null)
+	        throw new IllegalArgumentException("Data set is empty.");
+	    
+	    return findVariance(data, 0, data.length);
+	}
+	
+	// Find variance of a dataset (primitive slice)
+	public double findVariance(double[] data, int offset, int length) 
+	{
+	    checkSlice(data, offset, length);
+	    
+	    if (length == 0)
+	        throw new IllegalArgumentException("Data set is empty.");
+	    
+	    if (parallel)
+	        return ParallelStats.variance(data, offset, length);
+	    
+	    if (!compensated)
+	        return ParallelStats.variance(data, offset, length, false);
+
 	    // Find the mean and size of dataset
-	    double mean = findMean(data);
-	    int n = data.size();
-	    double sumOfSquaredDifferences = 0.0;
+	    double mean = findMean(data, offset, length);
+	    int n = length;
 
-	    // Calculate the sum of squared differences for each value in the dataset to find the variance
-	    for (double value : data) 
+	    return CompensatedSum.sumOfSquaredDeviations(data, offset, length, mean) / n;
+	}
+	
+	// Find variance of a dataset (buffer view between position and limit)
+	public double findVariance(DoubleBuffer data) 
+	{
+	    if (data == null || !data.hasRemaining())
+	        throw new IllegalArgumentException("Data set is empty.");
+	    
+	    if (data.hasArray())
+	        return findVariance(data.array(), data.arrayOffset() + data.position(), data.remaining());
+	    
+	    if (!compensated || parallel)
+	        return ParallelStats.variance(data, parallel);
+	    
+	    int start = data.position();
+	    int n = data.remaining();
+	    double mean = findMean(data);
+	    CompensatedSum sumOfSquaredDifferences = new CompensatedSum();
+	    
+	    for (int i = start; i < start + n; i++) 
 	    {
-	        double difference = value - mean;
-	        sumOfSquaredDifferences += difference * difference;
+	        double difference = data.get(i) - mean;
+	        sumOfSquaredDifferences.add(difference * difference);
 	    }
-
-	    return sumOfSquaredDifferences / n;
+	    
+	    return sumOfSquaredDifferences.getSum() / n;
 	}
 
 	
+	// All moments (mean, variance, std. dev., skewness, kurtosis) in one pass
+	public MomentAccumulator findMoments(ArrayList<Double> data) 
+	{
+	    MomentAccumulator moments = new MomentAccumulator();
+	    
+	    for (double value : data)
+	        moments.add(value);
+	    
+	    return moments;
+	}
+	
+	// All moments in one pass (primitive array)
+	public MomentAccumulator findMoments(double[] data) 
+	{
+	    return findMoments(data, 0, data.length);
+	}
+	
+	// All moments in one pass (primitive slice)
+	public MomentAccumulator findMoments(double[] data, int offset, int length) 
+	{
+	    checkSlice(data, offset, length);
+	    
+	    // Leaf accumulators merged in the same order either way
+	    return ParallelStats.moments(data, offset, length, parallel);
+	}
+	
+	// All moments in one pass (buffer view between position and limit)
+	public MomentAccumulator findMoments(DoubleBuffer data) 
+	{
+	    return ParallelStats.moments(data, parallel);
+	}
+
 	// Factorial
 	public BigInteger findFactorial(int n) 
 	{
-		// Start at 1
-        BigInteger result = BigInteger.ONE;
-        
-        // Multiply result by each integer from 1 to n
-        for (int i = 1; i <= n; i++)
-            result = result.multiply(BigInteger.valueOf(i));
-
-        return result;
+		// Empty product for n below 1
+		if (n < 0)
+			return BigInteger.ONE;
+		
+		// Served from a shared cache that grows as larger n are requested
+        return Combinatorics.factorial(n);
     }
 	
+	// Natural log of n!, for when n! itself would be too big to use
+	public double findLogFactorial(int n) 
+	{
+		return Combinatorics.logFactorial(n);
+	}
+	
 	// Permutations
 	public BigInteger findPermutation(int n, int r) 
 	{
 	    if (n < 0 || r < 0 || n < r)
 	        throw new IllegalArgumentException("Permutation bounds invalid");
 	    
-	    // Calculate permutation formula ( n! / (n - r)! )
-	    BigInteger numerator = findFactorial(n);
-	    BigInteger denominator = findFactorial(n - r);
-	    
-	    return numerator.divide(denominator);
+	    // Multiply the r factors n * (n - 1) * ... * (n - r + 1) instead of dividing factorials
+	    return Combinatorics.permutation(n, r);
 	}
 	
 	// Combinations
@@ -164,39 +501,80 @@ public class StatsLibrary
 	    if (n < 0 || r < 0 || n < r)
 	        throw new IllegalArgumentException("Combination bounds invalid");
 	    
-	    // Calculate combination formula ( n! / (r! * (n - r)!) )
-	    BigInteger numerator = findFactorial(n);
-	    BigInteger denominator = findFactorial(r).multiply(findFactorial(n - r));
-	    
-	    return numerator.divide(denominator);
+	    // Exact long when the result fits, otherwise built from its prime factors (never computes n!)
+	    return Combinatorics.combination(n, r);
 	}
 
 	// Determine Correlation
 	public double determineCorrelation(ArrayList<Double> x, ArrayList<Double> y) 
 	{
-        int n = x.size();
+        return determineCorrelation(toPrimitiveArray(x), toPrimitiveArray(y));
+    }
+	
+	// Determine Correlation (primitive arrays)
+	public double determineCorrelation(double[] x, double[] y) 
+	{
+        if (x == null || y == null)
+            throw new IllegalArgumentException("Data set is empty.");
+        
+        // Values are paired by index, so a longer y would just be cut short
+        if (x.length != y.length)
+            throw new IllegalArgumentException("Data sets must be the same length.");
+        
+        return determineCorrelation(x, 0, y, 0, x.length);
+    }
+	
+	// Determine Correlation (primitive slices of equal length)
+	public double determineCorrelation(double[] x, int xOffset, double[] y, int yOffset, int length) 
+	{
+        checkSlice(x, xOffset, length);
+        checkSlice(y, yOffset, length);
+        
+        if (parallel)
+            return ParallelStats.correlation(x, xOffset, y, yOffset, length);
+        
+        if (!compensated)
+            return ParallelStats.correlation(x, xOffset, y, yOffset, length, false);
+        
+        int n = length;
 
         // Calculate the means of x and y
-        double mean_X = findMean(x);
-        double mean_Y = findMean(y);
+        double mean_X = findMean(x, xOffset, n);
+        double mean_Y = findMean(y, yOffset, n);
 
-        // Calculate the sum of products of the differences
-        double sum_of_XY = 0.0;
-        double sum_of_X2 = 0.0;
-        double sum_of_Y2 = 0.0;
+        // These never leave the method, so the JIT keeps their fields in registers
+        CompensatedSum sum_of_XY = new CompensatedSum();
+        CompensatedSum sum_of_X2 = new CompensatedSum();
+        CompensatedSum sum_of_Y2 = new CompensatedSum();
 
+        // Calculate the sum of products of the differences
         for (int i = 0; i < n; i++) 
         {
-            double diffX = x.get(i) - mean_X;
-            double diffY = y.get(i) - mean_Y;
+            double diffX = x[xOffset + i] - mean_X;
+            double diffY = y[yOffset + i] - mean_Y;
 
-            sum_of_XY += diffX * diffY;
-            sum_of_X2 += diffX * diffX;
-            sum_of_Y2 += diffY * diffY;
+            sum_of_XY.add(diffX * diffY);
+            sum_of_X2.add(diffX * diffX);
+            sum_of_Y2.add(diffY * diffY);
         }
 
         // Calculate the correlation coefficient
-        return sum_of_XY / (Math.sqrt(sum_of_X2) * Math.sqrt(sum_of_Y2));
+        return sum_of_XY.getSum() / (Math.sqrt(sum_of_X2.getSum()) * Math.sqrt(sum_of_Y2.getSum()));
+    }
+	
+	// Determine Correlation (buffer views, paired from each position)
+	public double determineCorrelation(DoubleBuffer x, DoubleBuffer y) 
+	{
+        if (x.remaining() != y.remaining())
+            throw new IllegalArgumentException("Data sets must be the same length.");
+        
+        if (x.hasArray() && y.hasArray())
+            return determineCorrelation(x.array(), x.arrayOffset() + x.position(), y.array(), y.arrayOffset() + y.position(), x.remaining());
+        
+        if (!compensated || parallel)
+            return ParallelStats.correlation(x, y, parallel);
+        
+        return determineCorrelation(toPrimitiveArray(x), toPrimitiveArray(y));
     }
 	
 	// Dependency Check
@@ -206,42 +584,79 @@ public class StatsLibrary
 	    return Math.abs(correlationCoefficient) >= threshold;
 	}
 	
-	// Find Union of two datasets
+	// Dependency Check (primitive arrays)
+	public boolean isDependent(double[] x, double[] y, double threshold) 
+	{
+	    double correlationCoefficient = determineCorrelation(x, y);
+	    return Math.abs(correlationCoefficient) >= threshold;
+	}
+	
+	// Find Union of two datasets (list1 as given, then each new value of list2 once)
 	public ArrayList<Double> findUnion(ArrayList<Double> list1, ArrayList<Double> list2) 
 	{
 	    ArrayList<Double> union = new ArrayList<>(list1);
 	    
+	    // Hash table of everything already in the union so each lookup is O(1)
+	    FrequencyTable seen = FrequencyTable.of(toPrimitiveArray(list1), 0, list1.size());
+	    
 	    // Check for unique elements from both lists
 	    for (Double element : list2) 
-	        if (!union.contains(element))
+	    {
+	        if (seen.countOf(element) == 0)
+	        {
 	            union.add(element);
+	            seen.add(element);
+	        }
+	    }
 	    
 	    return union;
 	}
+	
+	// Find Union of two datasets (primitive arrays, set or multiset semantics)
+	public double[] findUnion(double[] list1, double[] list2, boolean multiset) 
+	{
+	    return SetOperations.union(list1, list2, multiset);
+	}
 
 	// Find Intersection of two datasets
 	public ArrayList<Double> findIntersection(ArrayList<Double> list1, ArrayList<Double> list2) 
 	{
 	    ArrayList<Double> intersection = new ArrayList<>();
+	    FrequencyTable inList2 = FrequencyTable.of(toPrimitiveArray(list2), 0, list2.size());
 	    
 	    // Find elements that are in both lists
 	    for (Double element : list1) 
-	        if (list2.contains(element))
+	        if (inList2.countOf(element) > 0)
 	            intersection.add(element);
 	    
 	    return intersection;
 	}
 	
+	// Find Intersection of two datasets (primitive arrays, set or multiset semantics)
+	public double[] findIntersection(double[] list1, double[] list2, boolean multiset) 
+	{
+	    return SetOperations.intersection(list1, list2, multiset);
+	}
+	
 	// Find Compliment of two datasets
 	public ArrayList<Double> findComplement(ArrayList<Double> list1, ArrayList<Double> list2) 
 	{
-	    ArrayList<Double> complement = new ArrayList<>(list1);
+	    ArrayList<Double> complement = new ArrayList<>();
+	    FrequencyTable inList2 = FrequencyTable.of(toPrimitiveArray(list2), 0, list2.size());
 	    
-	    // Remove all of the elements from list2 that are in list1
-	    complement.removeAll(list2);
+	    // Keep only the elements of list1 that list2 does not contain
+	    for (Double element : list1) 
+	        if (inList2.countOf(element) == 0)
+	            complement.add(element);
 	    
 	    return complement;
 	}
+	
+	// Find Compliment of two datasets (primitive arrays, set or multiset semantics)
+	public double[] findComplement(double[] list1, double[] list2, boolean multiset) 
+	{
+	    return SetOperations.complement(list1, list2, multiset);
+	}
 
 	// Conditional Probability
 	public double conditionalProbability(double probabilityAandB, double probabilityB) 
@@ -267,11 +682,32 @@ public class StatsLibrary
         if (n < 0 || x < 0 || n < x || p < 0 || p > 1 || q < 0 || q > 1)
             throw new IllegalArgumentException("Invalid Binomial Distribution bounds.");
 
-        // Calculate binomial distribution formula ( (n choose x) * p^x * q^(n - x) )
-        BigInteger combinations = findCombination(n, x);
-        double probability = combinations.doubleValue() * Math.pow(p, x) * Math.pow(q, n - x);
+        // Usual case q = 1 - p: evaluate in log space so large n neither overflows nor underflows
+        if (Math.abs(p + q - 1.0) <= 1e-12)
+            return DiscreteDistributions.binomialPmf(x, n, p);
 
-        return probability;
+        // Otherwise use the formula as given ( (n choose x) * p^x * q^(n - x) ), still in log space
+        double logProbability = Combinatorics.logCombination(n, x);
+        if (x > 0)
+            logProbability += x * Math.log(p);
+        if (n - x > 0)
+            logProbability += (n - x) * Math.log(q);
+
+        return Math.exp(logProbability);
+    }
+    
+    // Binomial cumulative probability P(X <= x)
+    public double binomialCumulative(int n, int x, double p) 
+    {
+        return DiscreteDistributions.binomialCdf(x, n, p);
+    }
+    
+    // Binomial Distribution for a whole array of x values (q = 1 - p)
+    public double[] binomialDistribution(int n, int[] x, double p) 
+    {
+        double[] probabilities = new double[x.length];
+        DiscreteDistributions.binomialPmf(x, n, p, probabilities);
+        return probabilities;
     }
     
     // Geometric Distribution for success on or before nth trial
@@ -320,12 +756,14 @@ public class StatsLibrary
     	if (y < 0 || r < 0 || n < 0 || N < 0 || r > N || y > r || n > N)
             throw new IllegalArgumentException("Invalid hypergeometric distribution bounds.");
         
-    	// Calculate the numerator and denominator by using combinations based on the formula
-        BigInteger numerator = findCombination(r, y).multiply(findCombination(N - r, n - y));
-        BigInteger denominator = findCombination(N, n);
-
-        // Return the answer as a fraction using doubleValue to convert from BigInteger to double
-        return numerator.doubleValue() / denominator.doubleValue();
+    	// Evaluate the ratio of combinations in log space instead of building BigIntegers
+        return DiscreteDistributions.hypergeometricPmf(y, N, r, n);
+    }
+    
+    // Hypergeometric cumulative probability P(Y <= y)
+    public double hypergeometricCumulative(int y, int N, int r, int n) 
+    {
+        return DiscreteDistributions.hypergeometricCdf(y, N, r, n);
     }
     
     // Negative Binomial Probability Distribution ((y-1 choose r-1) * (p^r) * (q^(y-r)))
@@ -334,12 +772,14 @@ public class StatsLibrary
     	if (y < r || p < 0 || p > 1 || r < 1)
             throw new IllegalArgumentException("Invalid negative binomial distribution bounds.");
     	
-        // Calculate the negative binomial PMF: (y-1 choose r-1) * (p^r) * (q^(y-r))
-        BigInteger numerator = findCombination(y - 1, r - 1);
-        double q = 1.0 - p;
-
-        // Return the answer based on the formula
-        return numerator.doubleValue() * Math.pow(p, r) * Math.pow(q, y - r);
+        // Evaluate the negative binomial PMF in log space
+        return DiscreteDistributions.negativeBinomialPmf(y, r, p);
+    }
+    
+    // Negative binomial cumulative probability P(Y <= y)
+    public double negativeBinomialCumulative(int y, double p, int r) 
+    {
+        return DiscreteDistributions.negativeBinomialCdf(y, r, p);
     }
     
     // Poisson Distribution ( P(X=x) = (lambda^x / x!) * e^-lambda
@@ -348,13 +788,22 @@ public class StatsLibrary
         if (k < 0 || lambda < 0)
             throw new IllegalArgumentException("Invalid poisson distribution bounds.");
 
-        // Calculate each part of the Poisson Distribution theoreom
-        double x1 = Math.exp(-lambda);
-        double x2 = Math.pow(lambda, k);
-        long x3 = findFactorial(k).longValue();
-
-        // Return the answer based on the formula
-        return x1 * x2 / x3;
+        // Evaluate in log space so x! never has to fit in a long (the old version broke above k = 20)
+        return DiscreteDistributions.poissonPmf(k, lambda);
+    }
+    
+    // Poisson Distribution for a whole array of k values
+    public double[] poissonDistribution(int[] k, double lambda) 
+    {
+        double[] probabilities = new double[k.length];
+        DiscreteDistributions.poissonPmf(k, lambda, probabilities);
+        return probabilities;
+    }
+    
+    // Poisson cumulative probability P(X <= k)
+    public double poissonCumulative(int k, double lambda) 
+    {
+        return DiscreteDistributions.poissonCdf(k, lambda);
     }
 
     // Chevyshev's Theorem
@@ -394,6 +843,30 @@ public class StatsLibrary
         return result;
     }
     
+    // Normal Probability Distribution, P(lowerBound <= X <= upperBound)
+    public double normalProbability(double mean, double stdDev, double lowerBound, double upperBound) 
+    {
+        if (stdDev <= 0 || upperBound < lowerBound)
+            throw new IllegalArgumentException("Invalid normal bounds.");
+
+        return continuousProbability(ContinuousDistribution.normal(mean, stdDev), lowerBound, upperBound);
+    }
+    
+    // Probability that any continuous distribution (normal, gamma, beta, t, chi-square) lands between the bounds
+    public double continuousProbability(ContinuousDistribution distribution, double lowerBound, double upperBound) 
+    {
+        if (upperBound < lowerBound)
+            throw new IllegalArgumentException("Invalid bounds.");
+
+        // Subtract in whichever tail is smaller so narrow intervals far from the centre keep their precision
+        double lowerTail = distribution.cumulativeProbability(lowerBound);
+
+        if (lowerTail < 0.5)
+            return distribution.cumulativeProbability(upperBound) - lowerTail;
+
+        return distribution.survivalProbability(lowerBound) - distribution.survivalProbability(upperBound);
+    }
+    
     // Joint Probability Function
     public double[][] findJointProbability(ArrayList<Double> probabilitiesA, ArrayList<Double> probabilitiesB) 
     {
@@ -452,4 +925,44 @@ public class StatsLibrary
         // Calculate the conditional probability
         return jointProbabilities.get(givenIndex) / marginalProbability;
     }
-}
+    
+    // Unbox an ArrayList once so the primitive methods can do the work
+    private static double[] toPrimitiveArray(ArrayList<Double> values) 
+    {
+        double[] result = new double[values.size()];
+        
+        for (int i = 0; i < result.length; i++)
+            result[i] = values.get(i);
+        
+        return result;
+    }
+    
+    // Copy the remaining values of a buffer without moving its position
+    private static double[] toPrimitiveArray(DoubleBuffer values) 
+    {
+        double[] result = new double[values.remaining()];
+        values.duplicate().get(result);
+        return result;
+    }
+    
+    // Compensated sum of a buffer between position and limit, with absolute gets
+    private static double compensatedSum(DoubleBuffer values) 
+    {
+        CompensatedSum sum = new CompensatedSum();
+        
+        for (int i = values.position(); i < values.limit(); i++)
+            sum.add(values.get(i));
+        
+        return sum.getSum();
+    }
+    
+    // Make sure an offset/length pair fits inside the array
+    private static void checkSlice(double[] values, int offset, int length) 
+    {
+        if (values == null)
+            throw new IllegalArgumentException("Data set is empty.");
+        
+        if (offset < 0 || length < 0 || offset > values.length - length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+    }
+}
\ No newline at end of file
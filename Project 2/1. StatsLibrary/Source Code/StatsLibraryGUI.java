@@ -494,8 +494,14 @@ public class StatsLibraryGUI
             }
 
             // Call the method and display the results
-            double correlation = statsLibrary.determineCorrelation(xNumbers, yNumbers);
-            displayResult("Correlation Coefficient", correlation);
+            try 
+            {
+                double correlation = statsLibrary.determineCorrelation(xNumbers, yNumbers);
+                displayResult("Correlation Coefficient", correlation);
+            } catch (IllegalArgumentException e) 
+            {
+                JOptionPane.showMessageDialog(null, e.getMessage(), "User Error", JOptionPane.ERROR_MESSAGE);
+            }
         }
     }
 
@@ -564,9 +570,15 @@ public class StatsLibraryGUI
             }
 
             // Check dependency using our method and display the results
-            boolean dependent = statsLibrary.isDependent(xNumbers, yNumbers, threshold);
-            String resultMessage = dependent ? "The datasets are dependent." : "The datasets are not dependent.";
-            JOptionPane.showMessageDialog(null, resultMessage, "Dependency Result", JOptionPane.INFORMATION_MESSAGE);
+            try 
+            {
+                boolean dependent = statsLibrary.isDependent(xNumbers, yNumbers, threshold);
+                String resultMessage = dependent ? "The datasets are dependent." : "The datasets are not dependent.";
+                JOptionPane.showMessageDialog(null, resultMessage, "Dependency Result", JOptionPane.INFORMATION_MESSAGE);
+            } catch (IllegalArgumentException e) 
+            {
+                JOptionPane.showMessageDialog(null, e.getMessage(), "User Error", JOptionPane.ERROR_MESSAGE);
+            }
         }
     }
 
@@ -0,0 +1,88 @@
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+//TestParallelStats
+//Checks that turning parallel mode on never changes an answer: every reduction is run with parallel off and
+//on over the same data (large enough to fork) and the two results must match bit for bit. Direct buffers, which
+//have no array behind them (like ColumnarDataset's mapped columns), must also match the arrays they copy.
+
+public class TestParallelStats
+{
+	// Enough values to be split over several fork/join leaves
+    private static final int SIZE = 1 << 21;
+
+    private static int failures;
+
+    public static void main(String[] args)
+    {
+        StatsLibrary sequential = new StatsLibrary();
+        StatsLibrary parallel = new StatsLibrary();
+        parallel.setParallel(true);
+
+        // Values near 1e6 with a small spread, where the order of additions shows up in the low bits
+        Random random = new Random(42);
+        double[] x = new double[SIZE];
+        double[] y = new double[SIZE];
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            x[i] = 1e6 + random.nextGaussian();
+            y[i] = 0.5 * x[i] + random.nextGaussian();
+        }
+
+        // Whole arrays
+        check("Sum", sequential.findSum(x), parallel.findSum(x));
+        check("Mean", sequential.findMean(x), parallel.findMean(x));
+        check("Variance", sequential.findVariance(x), parallel.findVariance(x));
+        check("Standard Deviation", sequential.findStandardDeviation(x), parallel.findStandardDeviation(x));
+        check("Min", sequential.findMin(x), parallel.findMin(x));
+        check("Max", sequential.findMax(x), parallel.findMax(x));
+        check("Correlation", sequential.determineCorrelation(x, y), parallel.determineCorrelation(x, y));
+        check("Skewness", sequential.findMoments(x).getSkewness(), parallel.findMoments(x).getSkewness());
+
+        // Slices that don't start on a leaf boundary
+        int offset = 12345;
+        int length = SIZE - 2 * offset;
+        check("Slice Sum", sequential.findSum(x, offset, length), parallel.findSum(x, offset, length));
+        check("Slice Mean", sequential.findMean(x, offset, length), parallel.findMean(x, offset, length));
+        check("Slice Variance", sequential.findVariance(x, offset, length), parallel.findVariance(x, offset, length));
+        check("Slice Correlation", sequential.determineCorrelation(x, offset, y, 0, length),
+                parallel.determineCorrelation(x, offset, y, 0, length));
+
+        // Direct buffers holding the same values, read from a position past the start
+        DoubleBuffer xBuffer = ByteBuffer.allocateDirect(SIZE * Double.BYTES).asDoubleBuffer().put(x);
+        DoubleBuffer yBuffer = ByteBuffer.allocateDirect(SIZE * Double.BYTES).asDoubleBuffer().put(y);
+        xBuffer.position(offset).limit(offset + length);
+        yBuffer.position(0).limit(length);
+
+        check("Buffer Sum", sequential.findSum(xBuffer), parallel.findSum(xBuffer));
+        check("Buffer Mean", sequential.findMean(xBuffer), parallel.findMean(xBuffer));
+        check("Buffer Variance", sequential.findVariance(xBuffer), parallel.findVariance(xBuffer));
+        check("Buffer Standard Deviation", sequential.findStandardDeviation(xBuffer), parallel.findStandardDeviation(xBuffer));
+        check("Buffer Min", sequential.findMin(xBuffer), parallel.findMin(xBuffer));
+        check("Buffer Max", sequential.findMax(xBuffer), parallel.findMax(xBuffer));
+        check("Buffer Correlation", sequential.determineCorrelation(xBuffer, yBuffer), parallel.determineCorrelation(xBuffer, yBuffer));
+        check("Buffer Skewness", sequential.findMoments(xBuffer).getSkewness(), parallel.findMoments(xBuffer).getSkewness());
+
+        check("Buffer vs Array Mean", sequential.findMean(x, offset, length), parallel.findMean(xBuffer));
+        check("Buffer vs Array Variance", sequential.findVariance(x, offset, length), parallel.findVariance(xBuffer));
+        check("Buffer vs Array Correlation", sequential.determineCorrelation(x, offset, y, 0, length), parallel.determineCorrelation(xBuffer, yBuffer));
+        check("Buffer Position", offset, xBuffer.position());
+
+        if (failures > 0)
+            throw new AssertionError(failures + " result(s) changed with parallel mode on");
+
+        System.out.println("Sequential and parallel results match.");
+    }
+
+    // Print both results and count a failure unless they are the same double
+    private static void check(String name, double sequentialResult, double parallelResult)
+    {
+        boolean same = Double.compare(sequentialResult, parallelResult) == 0;
+        System.out.println(name + " Test Results: " + sequentialResult + " / " + parallelResult + (same ? "" : "  MISMATCH"));
+
+        if (!same)
+            failures++;
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.Arrays;
+
+//ColumnBuffer
+//Growable primitive columns for loading data of unknown length. The backing array doubles in size whenever it
+//fills up, so adding n values copies O(n) elements in total instead of O(n^2) for grow-by-one resizing.
+//toArray makes the exact-size array once, after the last value has been added.
+
+public final class ColumnBuffer
+{
+	// Capacity of a new buffer when no size hint is given
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Largest array the JVM will reliably allocate
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    // Holder class for the two column types, no objects needed
+    private ColumnBuffer()
+    {
+    }
+
+    // Next capacity for a buffer that needs room for at least minCapacity values
+    private static int grow(int capacity, int minCapacity)
+    {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY)
+            throw new OutOfMemoryError("Column too large");
+
+        int doubled = (capacity > MAX_CAPACITY / 2) ? MAX_CAPACITY : capacity * 2;
+        return Math.max(Math.max(doubled, minCapacity), DEFAULT_CAPACITY);
+    }
+
+    // Growable int column
+    public static final class OfInt
+    {
+        private int[] values;
+        private int size;
+
+        public OfInt()
+        {
+            this(DEFAULT_CAPACITY);
+        }
+
+        // Start with room for the expected number of values
+        public OfInt(int initialCapacity)
+        {
+            values = new int[Math.max(0, initialCapacity)];
+        }
+
+        public void add(int value)
+        {
+            if (size == values.length)
+                values = Arrays.copyOf(values, grow(values.length, size + 1));
+
+            values[size++] = value;
+        }
+
+        public int get(int index)
+        {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+
+            return values[index];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Forget the values but keep the capacity for reuse
+        public void clear() {
+            size = 0;
+        }
+
+        // Exact-size copy of the values
+        public int[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    // Growable double column
+    public static final class OfDouble
+    {
+        private double[] values;
+        private int size;
+
+        public OfDouble()
+        {
+            this(DEFAULT_CAPACITY);
+        }
+
+        // Start with room for the expected number of values
+        public OfDouble(int initialCapacity)
+        {
+            values = new double[Math.max(0, initialCapacity)];
+        }
+
+        public void add(double value)
+        {
+            if (size == values.length)
+                values = Arrays.copyOf(values, grow(values.length, size + 1));
+
+            values[size++] = value;
+        }
+
+        public double get(int index)
+        {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+
+            return values[index];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Forget the values but keep the capacity for reuse
+        public void clear() {
+            size = 0;
+        }
+
+        // Exact-size copy of the values
+        public double[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
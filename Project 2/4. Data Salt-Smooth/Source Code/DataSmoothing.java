@@ -2,12 +2,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.concurrent.CancellationException;
 
 // Chris Ricchi
 // 11/5/2023
@@ -24,7 +25,24 @@ public class DataSmoothing extends JFrame
     private JButton saltDataButton;
     private JButton revertButton;
     private JButton exportCSVButton;
+
+    // Smoothing kernel and its window size
+    private JComboBox<String> smootherComboBox;
+    private JSpinner windowSpinner;
+    private JCheckBox parallelCheckBox;
+
+    // Noise model, amplitude and seed for salting
+    private JComboBox<String> noiseComboBox;
+    private JSpinner amplitudeSpinner;
+    private JTextField seedField;
+
     private PlotPanel plotPanel;
+    private JComboBox<String> downsampleComboBox;
+
+    // Progress of the background task that is running (if any) and the button to cancel it
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private DataTask<?> currentTask;
 
     // Ref. of loaded file and arrays to store data
     private File loadedFile;
@@ -33,6 +51,9 @@ public class DataSmoothing extends JFrame
     private int[] xData;
     private int[] yData;
 
+    // Noise generator for the current salting run (null until the first salt)
+    private NoiseGenerator noiseGenerator;
+
     // Constructor to build GUI
     public DataSmoothing() 
     {
@@ -54,6 +75,33 @@ public class DataSmoothing extends JFrame
         plotPanel = new PlotPanel();
         add(plotPanel, BorderLayout.CENTER);
 
+        // Large series are reduced to about two points per pixel column before plotting
+        downsampleComboBox = new JComboBox<>(Downsampler.MODE_NAMES);
+        downsampleComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                plotPanel.setDownsampling(downsampleComboBox.getSelectedIndex());
+            }
+        });
+        topPanel.add(new JLabel("Plot:"));
+        topPanel.add(downsampleComboBox);
+
+        // Loading, salting, smoothing and exporting run in the background with progress shown here
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (currentTask != null)
+                    currentTask.cancel(true);
+            }
+        });
+        topPanel.add(progressBar);
+        topPanel.add(cancelButton);
+
         // Bottom panel
         JPanel bottomPanel = new JPanel();
         loadCSVButton = new JButton("Load CSV");
@@ -62,17 +110,41 @@ public class DataSmoothing extends JFrame
         revertButton = new JButton("Revert to Original");
         exportCSVButton = new JButton("Export as CSV");
 
+        // Smoothing and salting options, shown in rows above the buttons
+        JPanel smoothingPanel = new JPanel();
+        smootherComboBox = new JComboBox<>(Smoothers.NAMES);
+        windowSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 999, 1));
+        smoothingPanel.add(new JLabel("Smoother:"));
+        smoothingPanel.add(smootherComboBox);
+        smoothingPanel.add(new JLabel("Window:"));
+        smoothingPanel.add(windowSpinner);
+
+        // Large series are smoothed in chunks on all cores (same result as one pass)
+        parallelCheckBox = new JCheckBox("Parallel", true);
+        smoothingPanel.add(parallelCheckBox);
+
+        // Salting options: the same seed always gives the same noise after loading or reverting
+        JPanel saltingPanel = new JPanel();
+        noiseComboBox = new JComboBox<>(NoiseGenerator.MODEL_NAMES);
+        noiseComboBox.setSelectedIndex(NoiseGenerator.UNIFORM);
+        amplitudeSpinner = new JSpinner(new SpinnerNumberModel(1.0, 0.0, 1000000.0, 0.5));
+        seedField = new JTextField("12345", 8);
+        saltingPanel.add(new JLabel("Noise:"));
+        saltingPanel.add(noiseComboBox);
+        saltingPanel.add(new JLabel("Amplitude:"));
+        saltingPanel.add(amplitudeSpinner);
+        saltingPanel.add(new JLabel("Seed:"));
+        saltingPanel.add(seedField);
+
         // Action listener for loading CSV
         loadCSVButton.addActionListener(new ActionListener() 
         {
             @Override
             public void actionPerformed(ActionEvent e) 
             {
-                loadCSV();
-                
-                // This will plot the data as soon as the .csv is loaded
+                // The data is plotted as soon as the .csv is loaded
                 // so you don't have to press "plot"
-                plotData();
+                loadCSV();
             }
         });
 
@@ -115,7 +187,12 @@ public class DataSmoothing extends JFrame
         bottomPanel.add(revertButton);
         bottomPanel.add(exportCSVButton);
 
-        add(bottomPanel, BorderLayout.SOUTH);
+        JPanel controlPanel = new JPanel(new GridLayout(3, 1));
+        controlPanel.add(smoothingPanel);
+        controlPanel.add(saltingPanel);
+        controlPanel.add(bottomPanel);
+
+        add(controlPanel, BorderLayout.SOUTH);
     }
 
     // Method to load CSV
@@ -127,138 +204,206 @@ public class DataSmoothing extends JFrame
 
         if (result == JFileChooser.APPROVE_OPTION) 
         {
-        	// Store reference to selected file
-            loadedFile = fileChooser.getSelectedFile();
+        	// Reference to selected file (kept once it has loaded)
+            final File selectedFile = fileChooser.getSelectedFile();
 
-            try 
+            startTask(new GuiTask<int[][]>("Loading " + selectedFile.getName(), "Error reading the file") 
             {
-                Scanner scanner = new Scanner(loadedFile);
-
-                // Empty CSV is loaded (no next line)
-                if (!scanner.hasNextLine()) 
-                {
-                    showErrorMessage("CSV File is empty");
-                    return;
-                }
-
-                // Read the header line
-                String headerLine = scanner.nextLine();
-                
-                // Split by commas
-                String[] headerTokens = headerLine.split(",");
-                
-                // Check csv is formatted for XY
-                if (headerTokens.length != 2) 
-                {
-                    showErrorMessage("CSV File contains improperly formatted header");
-                    return;
-                }
-
-                // Label axis
-                String xAxisLabel = headerTokens[0].trim();
-                String yAxisLabel = headerTokens[1].trim();
-
-                // Initialize arrays for data storage
-                originalXData = new int[0];
-                originalYData = new int[0];
-                xData = new int[0];
-                yData = new int[0];
-
-                // Parse CSV file
-                while (scanner.hasNextLine()) 
+                @Override
+                protected int[][] work() throws IOException 
                 {
-                    String dataLine = scanner.nextLine();
-                    String[] dataTokens = dataLine.split(",");
+                    long fileSize = selectedFile.length();
 
-                    if (dataTokens.length != 2) 
+                    // Parse with the shared CSV parser (fields are read in place, no split strings)
+                    try (CsvParser parser = new CsvParser(selectedFile.toPath())) 
                     {
-                        showErrorMessage("CSV File contains improperly formatted data");
-                        return;
-                    }
-
-                    try 
-                    {
-                        int x = Integer.parseInt(dataTokens[0].trim());
-                        int y = Integer.parseInt(dataTokens[1].trim());
-
-                        // Resize arrays to accommodate new data point
-                        originalXData = resizeArray(originalXData, originalXData.length + 1);
-                        originalYData = resizeArray(originalYData, originalYData.length + 1);
+                        // Read the header line
+                        String[] headerTokens = parser.readHeader();
 
-                        // Store original data point
-                        originalXData[originalXData.length - 1] = x;
-                        originalYData[originalYData.length - 1] = y;
-
-                        // Initialize current data point with original values
-                        xData = Arrays.copyOf(originalXData, originalXData.length);
-                        yData = Arrays.copyOf(originalYData, originalYData.length);
+                        // Empty CSV is loaded (no header line)
+                        if (headerTokens == null) 
+                            throw new IllegalArgumentException("CSV File is empty");
                         
-                    // Number catch
-                    } catch (NumberFormatException ex) {
-                        showErrorMessage("CSV File contains improperly formatted data");
-                        return;
+                        // Check csv is formatted for XY
+                        if (headerTokens.length != 2) 
+                            throw new IllegalArgumentException("CSV File contains improperly formatted header");
+
+                        // Columns grow geometrically while reading; the arrays are made once at the end
+                        ColumnBuffer.OfInt xColumn = new ColumnBuffer.OfInt();
+                        ColumnBuffer.OfInt yColumn = new ColumnBuffer.OfInt();
+
+                        // Parse CSV file
+                        while (parser.nextRow()) 
+                        {
+                            if (parser.getFieldCount() != 2) 
+                                throw new IllegalArgumentException("CSV File contains improperly formatted data");
+
+                            try 
+                            {
+                                // Store original data point
+                                xColumn.add(parser.getInt(0));
+                                yColumn.add(parser.getInt(1));
+                                
+                            // Number catch
+                            } catch (NumberFormatException ex) {
+                                throw new IllegalArgumentException("CSV File contains improperly formatted data");
+                            }
+
+                            // Every so often check for cancel, update the progress bar and show what has loaded so far
+                            if ((xColumn.size() & 0xFFFF) == 0) 
+                            {
+                                checkCancelled();
+                                reportProgress(parser.getBytesParsed(), fileSize);
+
+                                if (isPartialDue())
+                                    publishPartial(new int[][] { xColumn.toArray(), yColumn.toArray() });
+                            }
+                        }
+
+                        return new int[][] { xColumn.toArray(), yColumn.toArray() };
                     }
                 }
 
-                // Update status to show the CSV we loaded
-                statusLabel.setText(loadedFile.getName());
-                statusLabel.setForeground(Color.GREEN);
+                @Override
+                protected void showPartial(int[][] partial) 
+                {
+                    plotPanel.updateData("X-Axis", "Y-Axis", partial[0], partial[1]);
+                }
 
-            // File catch
-            } catch (FileNotFoundException ex) {
-                showErrorMessage("Error reading the file");
-            }
+                @Override
+                protected void succeeded(int[][] columns) 
+                {
+                	// Store the original data, then make the working copy once
+                    loadedFile = selectedFile;
+                    originalXData = columns[0];
+                    originalYData = columns[1];
+                    xData = Arrays.copyOf(originalXData, originalXData.length);
+                    yData = Arrays.copyOf(originalYData, originalYData.length);
+                    noiseGenerator = null;
+
+                    // Update status to show the CSV we loaded
+                    statusLabel.setText(loadedFile.getName());
+                    statusLabel.setForeground(Color.GREEN);
+
+                    plotData();
+                }
+            });
         }
     }
 
     // Method to salt data
     private void saltData() 
     {
-        // Salt each point with a random value within a reasonable range
-        Random rand = new Random();
-        
-        // Establish a range (changeable in the future)
-        int saltRange = 1;
-        
         // Null check for data
         if (originalXData != null && originalYData != null) 
         {
-        	// Parse through all xData
-        	for (int i = 0; i < xData.length; i++) 
-        	{
-        		// Salt each individual point and set it
-                int saltX = rand.nextInt(2 * saltRange + 1) - saltRange;
-                int saltY = rand.nextInt(2 * saltRange + 1) - saltRange;
+        	final NoiseGenerator generator = currentNoiseGenerator();
+        	if (generator == null)
+        		return;
 
-                xData[i] += saltX;
-                yData[i] += saltY;
-            }
+        	final int[] x = xData;
+        	final int[] y = yData;
 
-        	// Replot data after salting has occurred
-            plotData();
-            
+        	startTask(new GuiTask<int[][]>("Salting", "Error salting data") 
+        	{
+        		@Override
+        		protected int[][] work() 
+        		{
+        			// Salt copies of every point (in parallel blocks for large data)
+        			int[] saltedX = Arrays.copyOf(x, x.length);
+        			generator.salt(saltedX);
+        			reportProgress(1, 2);
+        			checkCancelled();
+
+        			int[] saltedY = Arrays.copyOf(y, y.length);
+        			generator.salt(saltedY);
+        			return new int[][] { saltedX, saltedY };
+        		}
+
+        		@Override
+        		protected void succeeded(int[][] salted) 
+        		{
+        			xData = salted[0];
+        			yData = salted[1];
+
+        			// Replot data after salting has occurred
+        			plotData();
+        		}
+        	});
         }
         else
             showErrorMessage("No data detected. Please load a CSV file.");
     }
 
+    // Generator for the noise settings in the GUI. It is kept between salts so each salt adds new noise,
+    // and made again from the seed when the settings change or the data is loaded or reverted
+    private NoiseGenerator currentNoiseGenerator()
+    {
+        long seed;
+        try
+        {
+            seed = Long.parseLong(seedField.getText().trim());
+        } catch (NumberFormatException e) {
+            showErrorMessage("Seed must be a whole number.");
+            return null;
+        }
+
+        int model = noiseComboBox.getSelectedIndex();
+        double amplitude = (Double) amplitudeSpinner.getValue();
+
+        if (noiseGenerator == null || noiseGenerator.getModel() != model || noiseGenerator.getAmplitude() != amplitude
+                || noiseGenerator.getSeed() != seed)
+            noiseGenerator = new NoiseGenerator(model, amplitude, seed);
+
+        return noiseGenerator;
+    }
+
     // Method to smooth data
     private void smoothData() 
     {
-    	// Using a simple moving average to smooth data.
-    	// Chose a window size of 3 (this is changeable later)
+    	// Smooth with the kernel and window size picked in the GUI
     	if (originalXData != null && originalYData != null) 
     	{
-    		// Parse through each xData
-    		for (int i = 1; i < xData.length - 1; i++)
+    		final Smoother smoother = Smoothers.create((String) smootherComboBox.getSelectedItem(), (Integer) windowSpinner.getValue());
+    		final boolean parallel = parallelCheckBox.isSelected();
+    		final int[] x = xData;
+    		final int[] y = yData;
+
+    		startTask(new GuiTask<int[][]>("Smoothing", "Error smoothing data") 
     		{
-    			// Use a simple moving average to smooth each point by window size of 3
-                xData[i] = (xData[i - 1] + xData[i] + xData[i + 1]) / 3;
-                yData[i] = (yData[i - 1] + yData[i] + yData[i + 1]) / 3;
-            }
-    		
-    		// Replot after smoothing
-    		plotData();
+    			@Override
+    			protected int[][] work() 
+    			{
+    				// Smooth into new arrays so every point is smoothed from unsmoothed neighbours
+    				int[] smoothedX = new int[x.length];
+    				int[] smoothedY = new int[y.length];
+
+    				smooth(x, smoothedX);
+    				reportProgress(1, 2);
+    				checkCancelled();
+
+    				smooth(y, smoothedY);
+    				return new int[][] { smoothedX, smoothedY };
+    			}
+
+    			private void smooth(int[] input, int[] output) 
+    			{
+    				if (parallel)
+    					ParallelSmoothing.smooth(smoother, input, output);
+    				else
+    					smoother.smooth(input, output);
+    			}
+
+    			@Override
+    			protected void succeeded(int[][] smoothed) 
+    			{
+    				xData = smoothed[0];
+    				yData = smoothed[1];
+
+    				// Replot after smoothing
+    				plotData();
+    			}
+    		});
         } 
     	else
         	showErrorMessage("No data detected. Please load a CSV file.");
@@ -273,6 +418,7 @@ public class DataSmoothing extends JFrame
         	// Use copyOf to restore datapoints of original length
             xData = Arrays.copyOf(originalXData, originalXData.length);
             yData = Arrays.copyOf(originalYData, originalYData.length);
+            noiseGenerator = null;
             
             // Replot after restored
             plotData();
@@ -310,35 +456,151 @@ public class DataSmoothing extends JFrame
 
             if (result == JFileChooser.APPROVE_OPTION) 
             {
-                File outputFile = fileChooser.getSelectedFile();
-                
-                try (PrintWriter writer = new PrintWriter(outputFile)) 
+                final File outputFile = fileChooser.getSelectedFile();
+                final int[] x = xData;
+                final int[] y = yData;
+
+                startTask(new GuiTask<Void>("Exporting " + outputFile.getName(), "Error exporting data to CSV") 
                 {
-                	// Create headers for new csv file
-                    writer.println("X-Axis,Y-Axis");
-                    
-                    // Loop through all points and write them to the csv file
-                    for (int i = 0; i < xData.length; i++)
-                        writer.println(xData[i] + "," + yData[i]);
-                    
-                    // File exception catch
-                } catch (FileNotFoundException e) {
-                    showErrorMessage("Error exporting data to CSV");
-                }
+                    @Override
+                    protected Void work() throws IOException 
+                    {
+                        try (PrintWriter writer = new PrintWriter(outputFile)) 
+                        {
+                        	// Create headers for new csv file
+                            writer.println("X-Axis,Y-Axis");
+                            
+                            // Loop through all points and write them to the csv file
+                            for (int i = 0; i < x.length; i++) 
+                            {
+                                writer.println(x[i] + "," + y[i]);
+
+                                if ((i & 0xFFFF) == 0) 
+                                {
+                                    checkCancelled();
+                                    reportProgress(i, x.length);
+                                }
+                            }
+
+                            if (writer.checkError())
+                                throw new IOException("Error writing " + outputFile);
+                        } catch (CancellationException e) {
+                            // Don't leave half a file behind
+                            outputFile.delete();
+                            throw e;
+                        }
+
+                        return null;
+                    }
+
+                    @Override
+                    protected void succeeded(Void result) 
+                    {
+                    }
+                });
             }
         } else {
             showErrorMessage("No data to export. Please load a CSV file.");
         }
     }
 
+    // Run an operation in the background, with the progress bar and cancel button active while it runs
+    private void startTask(GuiTask<?> task) 
+    {
+        currentTask = task;
+        setTaskRunning(true);
+        progressBar.setString(task.description);
+
+        task.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName()))
+                    progressBar.setValue((Integer) evt.getNewValue());
+            }
+        });
+
+        task.execute();
+    }
+
+    // Buttons that change the data are off while a task runs, so only one task runs at a time
+    private void setTaskRunning(boolean running) 
+    {
+        loadCSVButton.setEnabled(!running);
+        smoothDataButton.setEnabled(!running);
+        saltDataButton.setEnabled(!running);
+        revertButton.setEnabled(!running);
+        exportCSVButton.setEnabled(!running);
+        cancelButton.setEnabled(running);
+        progressBar.setValue(0);
+
+        if (!running) 
+        {
+            progressBar.setString("");
+            currentTask = null;
+        }
+    }
+
+    // Background task of this window: shows errors, puts the plot back after a cancel and frees the buttons
+    private abstract class GuiTask<T> extends DataTask<T> 
+    {
+        private final String description;
+        private final String ioErrorMessage;
+
+        GuiTask(String description, String ioErrorMessage) 
+        {
+            this.description = description;
+            this.ioErrorMessage = ioErrorMessage;
+        }
+
+        // Format problems carry their own message, file problems get the task's message
+        @Override
+        protected void failed(Exception e) 
+        {
+            if (e instanceof IllegalArgumentException)
+                showErrorMessage(e.getMessage());
+            else if (e instanceof IOException)
+                showErrorMessage(ioErrorMessage);
+            else
+                showErrorMessage(ioErrorMessage + ": " + e);
+
+            plotPanel.updateData("X-Axis", "Y-Axis", xData, yData);
+        }
+
+        // The data is only replaced when a task succeeds, so the plot just shows it again
+        @Override
+        protected void cancelled() 
+        {
+            plotPanel.updateData("X-Axis", "Y-Axis", xData, yData);
+        }
+
+        @Override
+        protected void ended() 
+        {
+            setTaskRunning(false);
+        }
+    }
+
     // Class that contains the plot
     public class PlotPanel extends JPanel 
     {
+    	// Padding around the plot area
+        private static final int MARGIN = 30;
+
+        // Points are only labelled with their values when this few are drawn
+        private static final int LABEL_LIMIT = 50;
+
     	// Private variables of plot data
         private String xAxisLabel;
         private String yAxisLabel;
         private int[] xData;
         private int[] yData;
+        private int xMax = 1;
+        private int yMax = 1;
+
+        // Indices of the points to draw, picked for the panel width they were made for
+        private int downsampling = Downsampler.LTTB;
+        private int[] plotted;
+        private int plottedWidth = -1;
 
         @Override
         protected void paintComponent(Graphics g) 
@@ -353,32 +615,26 @@ public class DataSmoothing extends JFrame
         // Method to draw points
         private void drawCoordinateGrid(Graphics g) 
         {
-            int margin = 30;
-
-            // Find the maximum values in xData and yData
-            int xMax = getMaxValue(xData);
-            int yMax = getMaxValue(yData);
-
             // Draw horizontal grid lines
             for (int i = 0; i <= 10; i++) 
             {
-                int y = margin + i * (getHeight() - 2 * margin) / 10;
-                g.drawLine(margin, y, getWidth() - margin, y);
+                int y = MARGIN + i * (getHeight() - 2 * MARGIN) / 10;
+                g.drawLine(MARGIN, y, getWidth() - MARGIN, y);
                 
                 // Display scale values on the side
                 String label = String.valueOf((int) (yMax * (10 - i) / 10.0));
-                g.drawString(label, margin - 25, y + 5);
+                g.drawString(label, MARGIN - 25, y + 5);
             }
 
             // Draw vertical grid lines
             for (int i = 0; i <= 10; i++) 
             {
-                int x = margin + i * (getWidth() - 2 * margin) / 10;
-                g.drawLine(x, getHeight() - margin, x, margin);
+                int x = MARGIN + i * (getWidth() - 2 * MARGIN) / 10;
+                g.drawLine(x, getHeight() - MARGIN, x, MARGIN);
                 
                 // Display scale values on the bottom
                 String label = String.valueOf((int) (xMax * i / 10.0));
-                g.drawString(label, x - 10, getHeight() - margin + 20);
+                g.drawString(label, x - 10, getHeight() - MARGIN + 20);
             }
         }
 
@@ -400,42 +656,55 @@ public class DataSmoothing extends JFrame
 
         private void plotData(Graphics g) 
         {
-        	// Margin for padding
-            int margin = 30;
-
-            // Find the maximum values in xData and yData
-            int xMax = getMaxValue(xData);
-            int yMax = getMaxValue(yData);
+            // Pick the points to draw again if the data or the panel width changed
+            int plotWidth = getWidth() - 2 * MARGIN;
+            if (plotted == null || plottedWidth != getWidth())
+            {
+                plotted = Downsampler.downsample(Downsampler.of(xData, yData), 0, xData.length, downsampling, 0, xMax, plotWidth);
+                plottedWidth = getWidth();
+            }
 
             // Plot data points
-            for (int i = 0; i < xData.length; i++) 
+            for (int i : plotted) 
             {
-                int x = margin + xData[i] * (getWidth() - 2 * margin) / xMax;
-                int y = getHeight() - margin - yData[i] * (getHeight() - 2 * margin) / yMax;
+                int x = toScreenX(xData[i]);
+                int y = toScreenY(yData[i]);
                 
                 // Plot points as circles
                 g.fillOval(x - 3, y - 3, 6, 6);
 
-                // Display data values near the points
-                g.drawString("(" + xData[i] + ", " + yData[i] + ")", x + 8, y - 8);
+                // Display data values near the points (only readable when there are few of them)
+                if (plotted.length <= LABEL_LIMIT)
+                    g.drawString("(" + xData[i] + ", " + yData[i] + ")", x + 8, y - 8);
             }
 
             // Connect data points with lines
             g.setColor(Color.BLUE);
             
             // Plot data points
-            for (int i = 1; i < xData.length; i++) 
+            for (int k = 1; k < plotted.length; k++) 
             {
-                int x1 = margin + xData[i - 1] * (getWidth() - 2 * margin) / xMax;
-                int y1 = getHeight() - margin - yData[i - 1] * (getHeight() - 2 * margin) / yMax;
-                int x2 = margin + xData[i] * (getWidth() - 2 * margin) / xMax;
-                int y2 = getHeight() - margin - yData[i] * (getHeight() - 2 * margin) / yMax;
+                int x1 = toScreenX(xData[plotted[k - 1]]);
+                int y1 = toScreenY(yData[plotted[k - 1]]);
+                int x2 = toScreenX(xData[plotted[k]]);
+                int y2 = toScreenY(yData[plotted[k]]);
                 g.drawLine(x1, y1, x2, y2);
             }
             
             g.setColor(Color.BLACK);
         }
 
+        // Pixel position of a data value (long math, so large values can't overflow)
+        private int toScreenX(int value)
+        {
+            return MARGIN + (int) ((long) value * (getWidth() - 2 * MARGIN) / xMax);
+        }
+
+        private int toScreenY(int value)
+        {
+            return getHeight() - MARGIN - (int) ((long) value * (getHeight() - 2 * MARGIN) / yMax);
+        }
+
         // Method to update the labels on the plot
         public void updateData(String xAxisLabel, String yAxisLabel, int[] xData, int[] yData) 
         {
@@ -443,16 +712,21 @@ public class DataSmoothing extends JFrame
             this.yAxisLabel = yAxisLabel;
             this.xData = xData;
             this.yData = yData;
+
+            // The maximums and the drawn points only change with the data
+            xMax = getMaxValue(xData);
+            yMax = getMaxValue(yData);
+            plotted = null;
             repaint();
         }
-    }
 
-    // Method to resize array to a new size
-    private int[] resizeArray(int[] arr, int newSize) 
-    {
-        int[] newArray = new int[newSize];
-        System.arraycopy(arr, 0, newArray, 0, Math.min(arr.length, newSize));
-        return newArray;
+        // Switch between the Downsampler modes
+        public void setDownsampling(int mode)
+        {
+            downsampling = mode;
+            plotted = null;
+            repaint();
+        }
     }
 
     // Method to call showMessageDialog with an error
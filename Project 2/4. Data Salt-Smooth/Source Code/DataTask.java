@@ -0,0 +1,111 @@
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+
+//DataTask
+//Runs one long GUI operation (loading, salting, smoothing, exporting) on a background thread so the window
+//keeps responding. work() runs in the background and can report progress and partial results; the other
+//hooks run on the event dispatch thread. Partial results are sent at most a few times a second, and when
+//several arrive before the GUI gets to them only the newest is shown, so the plot is never redrawn for nothing.
+//Cancelling interrupts the task, and work() stops at its next checkCancelled().
+
+public abstract class DataTask<T> extends SwingWorker<T, T>
+{
+	// Smallest gap between two partial results, in nanoseconds
+    private static final long PARTIAL_INTERVAL = 250_000_000L;
+
+    private long lastPartial = System.nanoTime();
+
+    // The operation itself (background thread)
+    protected abstract T work() throws Exception;
+
+    // The result of a finished task (event dispatch thread)
+    protected abstract void succeeded(T result);
+
+    // Show the newest partial result (event dispatch thread)
+    protected void showPartial(T partial)
+    {
+    }
+
+    // The task threw an exception (event dispatch thread)
+    protected void failed(Exception e)
+    {
+    }
+
+    // The task was cancelled before finishing (event dispatch thread)
+    protected void cancelled()
+    {
+    }
+
+    // Runs last whatever the outcome (event dispatch thread)
+    protected void ended()
+    {
+    }
+
+    // Report how much is done (progress goes from 0 to 100 and is sent to the "progress" property listeners)
+    protected void reportProgress(long done, long total)
+    {
+        if (total > 0)
+            setProgress((int) Math.max(0, Math.min(100, done * 100 / total)));
+    }
+
+    // Whether enough time has passed since the last partial result to send another (check this before
+    // building a partial result, since that usually means copying data)
+    protected boolean isPartialDue()
+    {
+        return System.nanoTime() - lastPartial >= PARTIAL_INTERVAL;
+    }
+
+    // Hand a partial result to the GUI
+    protected void publishPartial(T partial)
+    {
+        lastPartial = System.nanoTime();
+        publish(partial);
+    }
+
+    // Stop the work if the task has been cancelled
+    protected void checkCancelled()
+    {
+        if (isCancelled() || Thread.currentThread().isInterrupted())
+            throw new CancellationException();
+    }
+
+    @Override
+    protected final T doInBackground() throws Exception
+    {
+        return work();
+    }
+
+    // Only the newest of the partial results that piled up is worth drawing
+    @Override
+    protected final void process(List<T> partials)
+    {
+        if (!isCancelled() && !partials.isEmpty())
+            showPartial(partials.get(partials.size() - 1));
+    }
+
+    @Override
+    protected final void done()
+    {
+        try
+        {
+            if (isCancelled())
+                cancelled();
+            else
+                succeeded(get());
+        } catch (InterruptedException | CancellationException e) {
+            cancelled();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof CancellationException)
+                cancelled();
+            else
+                failed(cause instanceof Exception ? (Exception) cause : e);
+        } finally {
+            ended();
+        }
+    }
+}
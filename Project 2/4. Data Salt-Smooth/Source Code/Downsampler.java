@@ -0,0 +1,296 @@
+//Downsampler
+//Picks the points worth drawing when a series has far more points than the plot has pixels.
+//Two modes are available:
+//    LTTB    - Largest-Triangle-Three-Buckets: splits the series into equal buckets and keeps the point in each
+//              bucket that makes the biggest triangle with its neighbours, which keeps the visual shape
+//    Min/Max - for every pixel column keeps the lowest and highest point, so no spike ever disappears
+//Both return the indices of the kept points in their original order and aim for about two points per pixel
+//column, so drawing costs the same no matter how long the series is.
+
+public final class Downsampler
+{
+	// Downsampling modes
+    public static final int LTTB = 0;
+    public static final int MIN_MAX = 1;
+
+    // Names of the modes in the order of their constants, for the GUIs
+    public static final String[] MODE_NAMES = { "LTTB", "Min/Max" };
+
+    // Points kept per pixel column
+    private static final int POINTS_PER_PIXEL = 2;
+
+    // Static helper class, no objects needed
+    private Downsampler()
+    {
+    }
+
+    // Read-only view of the points of a series, so int and double data are handled the same way
+    public interface Series
+    {
+        int size();
+        double getX(int i);
+        double getY(int i);
+    }
+
+    // Series over two double arrays
+    public static Series of(double[] x, double[] y)
+    {
+        return new Series()
+        {
+            @Override
+            public int size() {
+                return Math.min(x.length, y.length);
+            }
+
+            @Override
+            public double getX(int i) {
+                return x[i];
+            }
+
+            @Override
+            public double getY(int i) {
+                return y[i];
+            }
+        };
+    }
+
+    // Series over two int arrays
+    public static Series of(int[] x, int[] y)
+    {
+        return new Series()
+        {
+            @Override
+            public int size() {
+                return Math.min(x.length, y.length);
+            }
+
+            @Override
+            public double getX(int i) {
+                return x[i];
+            }
+
+            @Override
+            public double getY(int i) {
+                return y[i];
+            }
+        };
+    }
+
+    // Series made of the given points of another series, in the order of indices
+    public static Series of(Series series, int[] indices)
+    {
+        return new Series()
+        {
+            @Override
+            public int size() {
+                return indices.length;
+            }
+
+            @Override
+            public double getX(int i) {
+                return series.getX(indices[i]);
+            }
+
+            @Override
+            public double getY(int i) {
+                return series.getY(indices[i]);
+            }
+        };
+    }
+
+    // Points of [from, to) to draw in a plot pixelWidth columns wide showing x from xMin to xMax
+    public static int[] downsample(Series series, int from, int to, int mode, double xMin, double xMax, int pixelWidth)
+    {
+        int columns = Math.max(1, pixelWidth);
+
+        if (mode == MIN_MAX)
+            return minMax(series, from, to, xMin, xMax, columns);
+
+        return largestTriangleThreeBuckets(series, from, to, columns * POINTS_PER_PIXEL);
+    }
+
+    // Whether the x values never go down, which lets a visible range be found by binary search
+    public static boolean isAscending(Series series)
+    {
+        for (int i = 1; i < series.size(); i++)
+            if (series.getX(i) < series.getX(i - 1))
+                return false;
+
+        return true;
+    }
+
+    // Index range [from, to) of an ascending series that covers x from xMin to xMax, plus one point on each
+    // side so the lines still run off the edges of the plot
+    public static int[] visibleRange(Series series, double xMin, double xMax)
+    {
+        int from = Math.max(0, lowerBound(series, xMin) - 1);
+        int to = Math.min(series.size(), lowerBound(series, xMax) + 1);
+
+        return new int[] { from, Math.max(from, to) };
+    }
+
+    // Indices (ascending) of the points of any series with x from xMin to xMax, plus the point on each side of
+    // every visible one so the lines still run off the edges of the plot. Unlike visibleRange the x values can
+    // come in any order, at the cost of one pass over the whole series
+    public static int[] visibleIndices(Series series, double xMin, double xMax)
+    {
+        ColumnBuffer.OfInt visible = new ColumnBuffer.OfInt();
+        int n = series.size();
+
+        boolean previous = false;
+        boolean current = n > 0 && isBetween(series.getX(0), xMin, xMax);
+
+        for (int i = 0; i < n; i++)
+        {
+            boolean next = i + 1 < n && isBetween(series.getX(i + 1), xMin, xMax);
+
+            if (previous || current || next)
+                visible.add(i);
+
+            previous = current;
+            current = next;
+        }
+
+        return visible.toArray();
+    }
+
+    // LTTB down to threshold points (the first and last point are always kept)
+    public static int[] largestTriangleThreeBuckets(Series series, int from, int to, int threshold)
+    {
+        int length = to - from;
+
+        if (threshold >= length || threshold < 3)
+            return (threshold < 3 && length > 2) ? new int[] { from, to - 1 } : range(from, to);
+
+        int[] kept = new int[threshold];
+        kept[0] = from;
+
+        // The points between the first and last are split into threshold - 2 buckets
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = from;
+
+        for (int b = 0; b < threshold - 2; b++)
+        {
+            int start = from + 1 + (int) (b * bucketSize);
+            int end = from + 1 + (int) ((b + 1) * bucketSize);
+
+            // The third corner is the average of the next bucket (or the last point)
+            int nextStart = end;
+            int nextEnd = Math.min(to, from + 1 + (int) ((b + 2) * bucketSize));
+            if (b == threshold - 3)
+            {
+                nextStart = to - 1;
+                nextEnd = to;
+            }
+
+            double avgX = 0.0;
+            double avgY = 0.0;
+            for (int i = nextStart; i < nextEnd; i++)
+            {
+                avgX += series.getX(i);
+                avgY += series.getY(i);
+            }
+            avgX /= (nextEnd - nextStart);
+            avgY /= (nextEnd - nextStart);
+
+            double ax = series.getX(previous);
+            double ay = series.getY(previous);
+            double bestArea = -1.0;
+            int best = start;
+
+            for (int i = start; i < end; i++)
+            {
+                // Twice the triangle area; only the comparison matters
+                double area = Math.abs((ax - avgX) * (series.getY(i) - ay) - (ax - series.getX(i)) * (avgY - ay));
+                if (area > bestArea)
+                {
+                    bestArea = area;
+                    best = i;
+                }
+            }
+
+            kept[b + 1] = best;
+            previous = best;
+        }
+
+        kept[threshold - 1] = to - 1;
+        return kept;
+    }
+
+    // Lowest and highest point of every run of points that falls in the same pixel column
+    public static int[] minMax(Series series, int from, int to, double xMin, double xMax, int columns)
+    {
+        if (to - from <= columns * POINTS_PER_PIXEL)
+            return range(from, to);
+
+        double scale = (xMax > xMin) ? columns / (xMax - xMin) : 0.0;
+        ColumnBuffer.OfInt kept = new ColumnBuffer.OfInt(columns * POINTS_PER_PIXEL + 2);
+
+        int runColumn = Integer.MIN_VALUE;
+        int low = -1;
+        int high = -1;
+
+        for (int i = from; i < to; i++)
+        {
+            int column = (int) Math.floor((series.getX(i) - xMin) * scale);
+
+            if (column != runColumn)
+            {
+                addRun(kept, low, high);
+                runColumn = column;
+                low = i;
+                high = i;
+            }
+            else if (series.getY(i) < series.getY(low))
+                low = i;
+            else if (series.getY(i) > series.getY(high))
+                high = i;
+        }
+
+        addRun(kept, low, high);
+        return kept.toArray();
+    }
+
+    // Add a run's lowest and highest point in the order they come in the series
+    private static void addRun(ColumnBuffer.OfInt kept, int low, int high)
+    {
+        if (low < 0)
+            return;
+
+        kept.add(Math.min(low, high));
+        if (low != high)
+            kept.add(Math.max(low, high));
+    }
+
+    private static boolean isBetween(double x, double xMin, double xMax)
+    {
+        return x >= xMin && x <= xMax;
+    }
+
+    // First index of an ascending series whose x is at least value
+    private static int lowerBound(Series series, double value)
+    {
+        int low = 0;
+        int high = series.size();
+
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (series.getX(mid) < value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    private static int[] range(int from, int to)
+    {
+        int[] indices = new int[Math.max(0, to - from)];
+        for (int i = 0; i < indices.length; i++)
+            indices[i] = from + i;
+
+        return indices;
+    }
+}
@@ -0,0 +1,112 @@
+//ExponentialMovingAverage
+//Each smoothed value is alpha * x + (1 - alpha) * (previous smoothed value), starting from the first point.
+//Only the previous smoothed value is kept, so every point costs O(1) and comes out as soon as it is pushed.
+//The window constructor uses the usual alpha = 2 / (window + 1), which gives the same average age of the
+//data as a simple moving average over that many points.
+
+public class ExponentialMovingAverage implements Smoother
+{
+	private final double alpha;
+
+    // EMA with the smoothing factor 0 < alpha <= 1 (bigger alpha follows the data more closely)
+    public ExponentialMovingAverage(double alpha)
+    {
+        if (!(alpha > 0.0 && alpha <= 1.0))
+            throw new IllegalArgumentException("Alpha must be in (0, 1].");
+
+        this.alpha = alpha;
+    }
+
+    // EMA comparable to a simple moving average over window points
+    public ExponentialMovingAverage(int window)
+    {
+        this(smoothingFactor(window));
+    }
+
+    // Getters
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public String getName() {
+        return "Exponential Moving Average";
+    }
+
+    // Every earlier point has some weight in the current value
+    @Override
+    public int getLookBehind() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int getLookAhead() {
+        return 0;
+    }
+
+    @Override
+    public Smoother.Stream newStream()
+    {
+        return new Stream();
+    }
+
+    private static double smoothingFactor(int window)
+    {
+        if (window < 1)
+            throw new IllegalArgumentException("Window size must be at least 1.");
+
+        return 2.0 / (window + 1);
+    }
+
+    // Streaming EMA, each pushed value is smoothed right away
+    private class Stream implements Smoother.Stream
+    {
+        private double value;
+        private long index = -1;
+
+        // Whether the latest push hasn't been taken with next yet
+        private boolean ready;
+
+        @Override
+        public void push(double x)
+        {
+            value = (index < 0) ? x : value + alpha * (x - value);
+            index++;
+            ready = true;
+        }
+
+        @Override
+        public void finish()
+        {
+        }
+
+        @Override
+        public boolean next()
+        {
+            boolean result = ready;
+            ready = false;
+            return result;
+        }
+
+        @Override
+        public void reset()
+        {
+            value = 0.0;
+            index = -1;
+            ready = false;
+        }
+
+        // Getters
+
+        @Override
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public long getIndex() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+//GaussianSmoother
+//Weighted average of the points in a centered window, with weights from a Gaussian bell curve so nearby
+//points count more than far ones. The weights are worked out once, so each point costs O(window).
+//Near the ends of the series the window is cut short and the weights that are left are scaled back up to 1.
+
+public class GaussianSmoother extends WindowSmoother
+{
+	private final double sigma;
+
+    // Weights for offsets -before..after, adding up to 1
+    private final double[] weights;
+
+    // Gaussian with the usual width for the window (it covers about +-3 sigma)
+    public GaussianSmoother(int window)
+    {
+        this(window, Math.max(window, 2) / 6.0);
+    }
+
+    // Gaussian over window points with standard deviation sigma (in points)
+    public GaussianSmoother(int window, double sigma)
+    {
+        super(window, window / 2);
+
+        if (!(sigma > 0.0))
+            throw new IllegalArgumentException("Sigma must be positive.");
+
+        this.sigma = sigma;
+
+        weights = new double[window];
+        double total = 0.0;
+
+        for (int k = 0; k < window; k++)
+        {
+            double t = (k - before) / sigma;
+            weights[k] = Math.exp(-0.5 * t * t);
+            total += weights[k];
+        }
+
+        for (int k = 0; k < window; k++)
+            weights[k] /= total;
+    }
+
+    // Getters
+
+    public double getSigma() {
+        return sigma;
+    }
+
+    @Override
+    public String getName() {
+        return "Gaussian";
+    }
+
+    @Override
+    public Smoother.Stream newStream()
+    {
+        return new Stream();
+    }
+
+    private class Stream extends WindowStream
+    {
+        @Override
+        protected double compute(long i)
+        {
+            long start = windowStart(i);
+            long end = windowEnd(i);
+
+            // Weight index for the first point is its offset from i, shifted so offset -before is 0
+            int k = (int) (start - i) + before;
+            int length = (int) (end - start + 1);
+            double sum = dot(weights, k, start, length);
+
+            // A full window already has weights adding up to 1
+            if (length == window)
+                return sum;
+
+            double weightUsed = 0.0;
+            for (int j = k; j < k + length; j++)
+                weightUsed += weights[j];
+
+            return sum / weightUsed;
+        }
+    }
+}
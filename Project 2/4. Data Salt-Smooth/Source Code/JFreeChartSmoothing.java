@@ -1,31 +1,42 @@
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JSpinner;
+import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingUtilities;
 
-import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
-import org.apache.commons.math4.legacy.stat.descriptive.moment.Mean;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.NumberTickUnit;
 import org.jfree.chart.axis.TickUnits;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.data.xy.XYSeries;
@@ -45,10 +56,35 @@ public class JFreeChartSmoothing extends JFrame
     private JButton saltDataButton;
     private JButton revertButton;
     private JButton exportCSVButton;
+
+    // Smoothing kernel and its window size
+    private JComboBox<String> smootherComboBox;
+    private JSpinner windowSpinner;
+    private JCheckBox parallelCheckBox;
+
+    // Noise model, amplitude and seed for salting
+    private JComboBox<String> noiseComboBox;
+    private JSpinner amplitudeSpinner;
+    private JTextField seedField;
     
     //JFreeChart ChartPanel
     private ChartPanel chartPanel;
 
+    // Downsampling mode for plotting, and the series that holds the downsampled points
+    private JComboBox<String> downsampleComboBox;
+    private XYSeries plotSeries;
+    private boolean plotXAscending;
+
+    // Points with the smallest and largest x, always plotted so the auto range covers the whole series
+    private int plotXMinIndex;
+    private int plotXMaxIndex;
+    private boolean updatingPlotSeries;
+
+    // Progress of the background task that is running (if any) and the button to cancel it
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private DataTask<?> currentTask;
+
     // Loaded file ref. and arrays for data points
     private File loadedFile;
     private double[] originalXData;
@@ -56,6 +92,9 @@ public class JFreeChartSmoothing extends JFrame
     private double[] xData;
     private double[] yData;
 
+    // Noise generator for the current salting run (null until the first salt)
+    private NoiseGenerator noiseGenerator;
+
     public JFreeChartSmoothing() 
     {
     	// Establishing GUI elements
@@ -71,12 +110,47 @@ public class JFreeChartSmoothing extends JFrame
         statusLabel = new JLabel("No CSV data loaded. Please load CSV file.");
         statusLabel.setForeground(Color.RED);
         topPanel.add(statusLabel);
+
+        // Large series are reduced to about two points per pixel column before plotting
+        downsampleComboBox = new JComboBox<>(Downsampler.MODE_NAMES);
+        downsampleComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refreshPlotSeries();
+            }
+        });
+        topPanel.add(new JLabel("Plot:"));
+        topPanel.add(downsampleComboBox);
+
+        // Loading, salting, smoothing and exporting run in the background with progress shown here
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (currentTask != null)
+                    currentTask.cancel(true);
+            }
+        });
+        topPanel.add(progressBar);
+        topPanel.add(cancelButton);
         add(topPanel, BorderLayout.NORTH);
 
         // Center panel
         chartPanel = createChartPanel();
         add(chartPanel, BorderLayout.CENTER);
 
+        // Pick the plotted points again when the chart changes size
+        chartPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                refreshPlotSeries();
+            }
+        });
+
         // Bottom panel
         JPanel bottomPanel = new JPanel();
         loadCSVButton = new JButton("Load CSV");
@@ -85,15 +159,39 @@ public class JFreeChartSmoothing extends JFrame
         revertButton = new JButton("Revert to Original");
         exportCSVButton = new JButton("Export as CSV");
 
+        // Smoothing and salting options, shown in rows above the buttons
+        JPanel smoothingPanel = new JPanel();
+        smootherComboBox = new JComboBox<>(Smoothers.NAMES);
+        windowSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 999, 1));
+        smoothingPanel.add(new JLabel("Smoother:"));
+        smoothingPanel.add(smootherComboBox);
+        smoothingPanel.add(new JLabel("Window:"));
+        smoothingPanel.add(windowSpinner);
+
+        // Large series are smoothed in chunks on all cores (same result as one pass)
+        parallelCheckBox = new JCheckBox("Parallel", true);
+        smoothingPanel.add(parallelCheckBox);
+
+        // Salting options: the same seed always gives the same noise after loading or reverting
+        JPanel saltingPanel = new JPanel();
+        noiseComboBox = new JComboBox<>(NoiseGenerator.MODEL_NAMES);
+        noiseComboBox.setSelectedIndex(NoiseGenerator.UNIFORM);
+        amplitudeSpinner = new JSpinner(new SpinnerNumberModel(1.0, 0.0, 1000000.0, 0.5));
+        seedField = new JTextField("12345", 8);
+        saltingPanel.add(new JLabel("Noise:"));
+        saltingPanel.add(noiseComboBox);
+        saltingPanel.add(new JLabel("Amplitude:"));
+        saltingPanel.add(amplitudeSpinner);
+        saltingPanel.add(new JLabel("Seed:"));
+        saltingPanel.add(seedField);
+
         // Action listener for loading csv
         loadCSVButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                loadCSV();
-                
-                // This will plot the data as soon as the .csv is loaded
+                // The data is plotted as soon as the .csv is loaded
                 // so you don't have to press "plot"
-                plotData();
+                loadCSV();
             }
         });
 
@@ -135,7 +233,12 @@ public class JFreeChartSmoothing extends JFrame
         bottomPanel.add(revertButton);
         bottomPanel.add(exportCSVButton);
 
-        add(bottomPanel, BorderLayout.SOUTH);
+        JPanel controlPanel = new JPanel(new GridLayout(3, 1));
+        controlPanel.add(smoothingPanel);
+        controlPanel.add(saltingPanel);
+        controlPanel.add(bottomPanel);
+
+        add(controlPanel, BorderLayout.SOUTH);
     }
 
     // Creating a chart using JFreeChart
@@ -175,160 +278,238 @@ public class JFreeChartSmoothing extends JFrame
 
         if (result == JFileChooser.APPROVE_OPTION) 
         {
-            loadedFile = fileChooser.getSelectedFile();
+            final File selectedFile = fileChooser.getSelectedFile();
 
-            try 
+            startTask(new GuiTask<double[][]>("Loading " + selectedFile.getName(), "Error reading the file") 
             {
-                Scanner scanner = new Scanner(loadedFile);
+                // Data shown before the load started, put back if it doesn't finish
+                private final double[] previousX = xData;
+                private final double[] previousY = yData;
 
-                // Ensure CSV has data
-                if (!scanner.hasNextLine()) 
+                @Override
+                protected double[][] work() throws IOException 
                 {
-                    showErrorMessage("CSV File is empty");
-                    return;
+                    long fileSize = selectedFile.length();
+
+                    // Parse with the shared CSV parser (fields are read in place, no split strings)
+                    try (CsvParser parser = new CsvParser(selectedFile.toPath())) 
+                    {
+                        // Read the header line
+                        String[] headerTokens = parser.readHeader();
+
+                        // Ensure CSV has data
+                        if (headerTokens == null) 
+                            throw new IllegalArgumentException("CSV File is empty");
+                        
+                        if (headerTokens.length != 2) 
+                            throw new IllegalArgumentException("CSV File contains improperly formatted header");
+
+                        // Columns grow geometrically while reading; the arrays are made once at the end
+                        ColumnBuffer.OfDouble xColumn = new ColumnBuffer.OfDouble();
+                        ColumnBuffer.OfDouble yColumn = new ColumnBuffer.OfDouble();
+
+                        // Continue through CSV
+                        while (parser.nextRow()) 
+                        {
+                            // Check row format
+                            if (parser.getFieldCount() != 2) 
+                                throw new IllegalArgumentException("CSV File contains improperly formatted data");
+
+                            // Storing with correct format
+                            try 
+                            {
+                                // Store original data point
+                                xColumn.add(parser.getDouble(0));
+                                yColumn.add(parser.getDouble(1));
+                                
+                                // Number catch
+                            } catch (NumberFormatException ex) {
+                                throw new IllegalArgumentException("CSV File contains improperly formatted data");
+                            }
+
+                            // Every so often check for cancel, update the progress bar and show what has loaded so far
+                            if ((xColumn.size() & 0xFFFF) == 0) 
+                            {
+                                checkCancelled();
+                                reportProgress(parser.getBytesParsed(), fileSize);
+
+                                if (isPartialDue())
+                                    publishPartial(new double[][] { xColumn.toArray(), yColumn.toArray() });
+                            }
+                        }
+
+                        return new double[][] { xColumn.toArray(), yColumn.toArray() };
+                    }
                 }
 
-                // Read the header line
-                String headerLine = scanner.nextLine();
-                
-                // Split to store data from commas
-                String[] headerTokens = headerLine.split(",");
-                
-                if (headerTokens.length != 2) 
+                // The chart plots xData and yData, so the partial data stands in for them until the load ends
+                @Override
+                protected void showPartial(double[][] partial) 
                 {
-                    showErrorMessage("CSV File contains improperly formatted header");
-                    return;
+                    xData = partial[0];
+                    yData = partial[1];
+                    plotData();
                 }
 
-                // Set up X and Y labels
-                String xAxisLabel = headerTokens[0].trim();
-                String yAxisLabel = headerTokens[1].trim();
-
-                // Initialize X and Y datapoints
-                originalXData = new double[0];
-                originalYData = new double[0];
-                xData = new double[0];
-                yData = new double[0];
-
-                // Continue through CSV
-                while (scanner.hasNextLine()) 
+                @Override
+                protected void succeeded(double[][] columns) 
                 {
-                    String dataLine = scanner.nextLine();
-                    String[] dataTokens = dataLine.split(",");
-
-                    // Check header format
-                    if (dataTokens.length != 2) 
-                    {
-                        showErrorMessage("CSV File contains improperly formatted data");
-                        return;
-                    }
-
-                    // Storing with correct format
-                    try 
-                    {
-                    	// Storing each points
-                        double x = Double.parseDouble(dataTokens[0].trim());
-                        double y = Double.parseDouble(dataTokens[1].trim());
-
-                        // Resize arrays to accommodate new data point
-                        originalXData = resizeArray(originalXData, originalXData.length + 1);
-                        originalYData = resizeArray(originalYData, originalYData.length + 1);
+                    // Store the original data, then make the working copy once
+                    loadedFile = selectedFile;
+                    originalXData = columns[0];
+                    originalYData = columns[1];
+                    xData = Arrays.copyOf(originalXData, originalXData.length);
+                    yData = Arrays.copyOf(originalYData, originalYData.length);
+                    noiseGenerator = null;
+
+                    // Setting status label so user know CSV is loaded
+                    statusLabel.setText(loadedFile.getName());
+                    statusLabel.setForeground(Color.GREEN);
+
+                    plotData();
+                }
 
-                        // Store original data point
-                        originalXData[originalXData.length - 1] = x;
-                        originalYData[originalYData.length - 1] = y;
+                @Override
+                protected void failed(Exception e) 
+                {
+                    restore();
+                    super.failed(e);
+                }
 
-                        // Initialize current data point with original values
-                        xData = Arrays.copyOf(originalXData, originalXData.length);
-                        yData = Arrays.copyOf(originalYData, originalYData.length);
-                        
-                        // Number catch
-                    } catch (NumberFormatException ex) {
-                        showErrorMessage("CSV File contains improperly formatted data");
-                        return;
-                    }
+                @Override
+                protected void cancelled() 
+                {
+                    restore();
+                    super.cancelled();
                 }
 
-                // Setting status label so user know CSV is loaded
-                statusLabel.setText(loadedFile.getName());
-                statusLabel.setForeground(Color.GREEN);
+                // Put back the data from before the load (an empty chart if there was none)
+                private void restore() 
+                {
+                    xData = previousX;
+                    yData = previousY;
 
-                // File exception
-            } catch (FileNotFoundException ex) {
-                showErrorMessage("Error reading the file");
-            }
+                    if (xData == null && plotSeries != null)
+                        plotSeries.clear();
+                }
+            });
         }
     }
     
-    // Private method to resizeArray
-    private double[] resizeArray(double[] arr, int newSize) 
-    {
-        double[] newArray = new double[newSize];
-        System.arraycopy(arr, 0, newArray, 0, Math.min(arr.length, newSize));
-        return newArray;
-    }
-
     // Method to salt data
     private void saltData() 
     {
-        // Salt each point with a random value within a reasonable range
-        Random rand = new Random();
-        
-        // Establish a range (changeable in the future)
-        double saltRange = 1.0;
-
         // Null check for data
         if (originalXData != null && originalYData != null) 
         {
-            for (int i = 0; i < xData.length; i++) 
+            final NoiseGenerator generator = currentNoiseGenerator();
+            if (generator == null)
+                return;
+
+            final double[] x = xData;
+            final double[] y = yData;
+
+            startTask(new GuiTask<double[][]>("Salting", "Error salting data") 
             {
-            	// Parse through all xData
-                double saltX = rand.nextDouble() * 2 * saltRange - saltRange;
-                double saltY = rand.nextDouble() * 2 * saltRange - saltRange;
+                @Override
+                protected double[][] work() 
+                {
+                    // Salt copies of every point (in parallel blocks for large data)
+                    double[] saltedX = Arrays.copyOf(x, x.length);
+                    generator.salt(saltedX);
+                    reportProgress(1, 2);
+                    checkCancelled();
+
+                    double[] saltedY = Arrays.copyOf(y, y.length);
+                    generator.salt(saltedY);
+                    return new double[][] { saltedX, saltedY };
+                }
 
-                xData[i] += saltX;
-                yData[i] += saltY;
-            }
-            
-            // Replot data after salting has occurred
-            plotData();
+                @Override
+                protected void succeeded(double[][] salted) 
+                {
+                    xData = salted[0];
+                    yData = salted[1];
+
+                    // Replot data after salting has occurred
+                    plotData();
+                }
+            });
             
         } else
             showErrorMessage("No data detected. Please load a CSV file.");
     }
 
+    // Generator for the noise settings in the GUI. It is kept between salts so each salt adds new noise,
+    // and made again from the seed when the settings change or the data is loaded or reverted
+    private NoiseGenerator currentNoiseGenerator()
+    {
+        long seed;
+        try
+        {
+            seed = Long.parseLong(seedField.getText().trim());
+        } catch (NumberFormatException e) {
+            showErrorMessage("Seed must be a whole number.");
+            return null;
+        }
+
+        int model = noiseComboBox.getSelectedIndex();
+        double amplitude = (Double) amplitudeSpinner.getValue();
+
+        if (noiseGenerator == null || noiseGenerator.getModel() != model || noiseGenerator.getAmplitude() != amplitude
+                || noiseGenerator.getSeed() != seed)
+            noiseGenerator = new NoiseGenerator(model, amplitude, seed);
+
+        return noiseGenerator;
+    }
+
     // Method to smooth data
     private void smoothData() 
     {
     	// Null check
         if (originalXData != null && originalYData != null) 
         {
-        	// Establish a window size (3 works good, can change later)
-            int windowSize = 3;
+        	// Smooth with the kernel and window size picked in the GUI
+            final Smoother smoother = Smoothers.create((String) smootherComboBox.getSelectedItem(), (Integer) windowSpinner.getValue());
+            final boolean parallel = parallelCheckBox.isSelected();
+            final double[] x = xData;
+            final double[] y = yData;
 
-            try 
+            startTask(new GuiTask<double[][]>("Smoothing", "Error smoothing data") 
             {
-                for (int i = 1; i < xData.length - 1; i++) 
+                @Override
+                protected double[][] work() 
+                {
+                    // Smooth into new arrays so every point is smoothed from unsmoothed neighbours
+                    double[] smoothedX = new double[x.length];
+                    double[] smoothedY = new double[y.length];
+
+                    smooth(x, smoothedX);
+                    reportProgress(1, 2);
+                    checkCancelled();
+
+                    smooth(y, smoothedY);
+                    return new double[][] { smoothedX, smoothedY };
+                }
+
+                private void smooth(double[] input, double[] output) 
                 {
-                	// Create subsets of the orignial data in window size
-                    double[] xSubset = Arrays.copyOfRange(xData, Math.max(0, i - windowSize / 2), Math.min(xData.length, i + windowSize / 2 + 1));
-                    double[] ySubset = Arrays.copyOfRange(yData, Math.max(0, i - windowSize / 2), Math.min(yData.length, i + windowSize / 2 + 1));
-
-                    // Calculate the mean value for the subset
-                    Mean meanFunction = new Mean();
-                    xData[i] = meanFunction.evaluate(xSubset);
-                    yData[i] = meanFunction.evaluate(ySubset);
+                    if (parallel)
+                        ParallelSmoothing.smooth(smoother, input, output);
+                    else
+                        smoother.smooth(input, output);
                 }
 
-                // Plot after smoothing has occurred
-                plotData();
-                
-                // Number exception
-            } catch (MathIllegalArgumentException e) {
-                e.printStackTrace();
-                showErrorMessage("Error smoothing data.");
-            }
-            
+                @Override
+                protected void succeeded(double[][] smoothed) 
+                {
+                    xData = smoothed[0];
+                    yData = smoothed[1];
+
+                    // Plot after smoothing has occurred
+                    plotData();
+                }
+            });
         } else
             showErrorMessage("No data detected. Please load a CSV file.");
     }
@@ -341,6 +522,7 @@ public class JFreeChartSmoothing extends JFrame
         {
             xData = Arrays.copyOf(originalXData, originalXData.length);
             yData = Arrays.copyOf(originalYData, originalYData.length);
+            noiseGenerator = null;
             plotData();
         } 
         
@@ -367,6 +549,15 @@ public class JFreeChartSmoothing extends JFrame
 
             // Plot using XYPlot
             XYPlot plot = chart.getXYPlot();
+
+            // Zooming or panning changes the visible x range, so pick the plotted points again
+            plot.getDomainAxis().addChangeListener(new AxisChangeListener() {
+                @Override
+                public void axisChanged(AxisChangeEvent event) {
+                    refreshPlotSeries();
+                }
+            });
+
             chartPanel.setChart(chart);
 
             // Enable the revert button after loaded data
@@ -379,19 +570,126 @@ public class JFreeChartSmoothing extends JFrame
     // Method of XYSeriesCollection JFreeChart to create dataset
     private XYSeriesCollection createDataset() 
     {
-    	// Create new XYSeries
-        XYSeries series = new XYSeries("Data");
-        
-        // Add X and Y points to series
-        for (int i = 0; i < xData.length; i++)
-            series.add(xData[i], yData[i]);
+    	// Create new XYSeries (kept in index order, so nothing is sorted or checked on each add)
+        plotSeries = new XYSeries("Data", false, true);
+        plotXAscending = Downsampler.isAscending(Downsampler.of(xData, yData));
+        findXExtremes();
+
+        // Add the downsampled X and Y points to series
+        fillPlotSeries(Double.NaN, Double.NaN);
 
         // Add dataset to series
         XYSeriesCollection dataset = new XYSeriesCollection();
-        dataset.addSeries(series);
+        dataset.addSeries(plotSeries);
 
         return dataset;
     }
+
+    // Downsample the points for the current chart width and visible x range, and put them in the plot series
+    private void refreshPlotSeries()
+    {
+        if (plotSeries == null || updatingPlotSeries || chartPanel.getChart() == null)
+            return;
+
+        ValueAxis domainAxis = chartPanel.getChart().getXYPlot().getDomainAxis();
+
+        // An auto-ranged axis (after restoring the bounds) shows the whole series again
+        if (domainAxis.isAutoRange())
+            fillPlotSeries(Double.NaN, Double.NaN);
+        else
+            fillPlotSeries(domainAxis.getLowerBound(), domainAxis.getUpperBound());
+    }
+
+    // Find the points with the smallest and largest x (-1 if there are no points)
+    private void findXExtremes()
+    {
+        plotXMinIndex = -1;
+        plotXMaxIndex = -1;
+
+        for (int i = 0; i < Math.min(xData.length, yData.length); i++)
+        {
+            if (plotXMinIndex < 0 || xData[i] < xData[plotXMinIndex])
+                plotXMinIndex = i;
+            if (plotXMaxIndex < 0 || xData[i] > xData[plotXMaxIndex])
+                plotXMaxIndex = i;
+        }
+    }
+
+    // Replace the plot series with the points to draw between xMin and xMax (NaN for the whole series)
+    private void fillPlotSeries(double xMin, double xMax)
+    {
+        Downsampler.Series series = Downsampler.of(xData, yData);
+        int from = 0;
+        int to = series.size();
+
+        // Indices into the data of the points being downsampled, when they aren't simply [from, to)
+        int[] visible = null;
+
+        if (Double.isNaN(xMin) || Double.isNaN(xMax))
+        {
+            xMin = (plotXMinIndex < 0) ? 0.0 : xData[plotXMinIndex];
+            xMax = (plotXMaxIndex < 0) ? 0.0 : xData[plotXMaxIndex];
+        }
+        else if (plotXAscending)
+        {
+            // Only the visible part of a zoomed-in series needs to be looked at
+            int[] range = Downsampler.visibleRange(series, xMin, xMax);
+            from = range[0];
+            to = range[1];
+        }
+        else
+        {
+            // Without ascending x the visible points can be anywhere, so only those are picked out and
+            // downsampled, which lets zooming in still show more detail
+            visible = Downsampler.visibleIndices(series, xMin, xMax);
+            series = Downsampler.of(series, visible);
+            to = visible.length;
+        }
+
+        int[] indices = Downsampler.downsample(series, from, to, downsampleComboBox.getSelectedIndex(), xMin, xMax,
+                Math.max(1, chartPanel.getWidth()));
+
+        // Back to indices into the data (still ascending, since visible is)
+        if (visible != null)
+            for (int k = 0; k < indices.length; k++)
+                indices[k] = visible[indices[k]];
+
+        // Keep the two end points of the data in the series so JFreeChart's auto range is the full extent
+        indices = withIndex(withIndex(indices, plotXMinIndex), plotXMaxIndex);
+
+        // The series fires one change event at the end, and the axis events it causes are ignored
+        updatingPlotSeries = true;
+        try
+        {
+            plotSeries.clear();
+            for (int i : indices)
+                plotSeries.add(xData[i], yData[i], false);
+            plotSeries.fireSeriesChanged();
+        }
+        finally
+        {
+            updatingPlotSeries = false;
+        }
+    }
+    
+    // Sorted indices with index added in order (unchanged if it is already there or is -1)
+    private static int[] withIndex(int[] indices, int index)
+    {
+        if (index < 0)
+            return indices;
+
+        int position = Arrays.binarySearch(indices, index);
+        if (position >= 0)
+            return indices;
+
+        position = -position - 1;
+        int[] merged = new int[indices.length + 1];
+        System.arraycopy(indices, 0, merged, 0, position);
+        merged[position] = index;
+        System.arraycopy(indices, position, merged, position + 1, indices.length - position);
+
+        return merged;
+    }
     
     // Method to show errors in JOptionPane
     private void showErrorMessage(String message) 
@@ -411,26 +709,131 @@ public class JFreeChartSmoothing extends JFrame
 
             if (result == JFileChooser.APPROVE_OPTION) 
             {
-                File outputFile = fileChooser.getSelectedFile();
-                
-                try (PrintWriter writer = new PrintWriter(outputFile)) 
+                final File outputFile = fileChooser.getSelectedFile();
+                final double[] x = xData;
+                final double[] y = yData;
+
+                startTask(new GuiTask<Void>("Exporting " + outputFile.getName(), "Error exporting data to CSV") 
                 {
-                	// Write headers of csv
-                    writer.println("X-Axis,Y-Axis");
-                    
-                    // Loop and write X and Y points
-                    for (int i = 0; i < xData.length; i++)
-                        writer.println(xData[i] + "," + yData[i]);
-                    
-                    //File exception
-                } catch (FileNotFoundException e) {
-                    showErrorMessage("Error exporting data to CSV");
-                }
+                    @Override
+                    protected Void work() throws IOException 
+                    {
+                        try (PrintWriter writer = new PrintWriter(outputFile)) 
+                        {
+                        	// Write headers of csv
+                            writer.println("X-Axis,Y-Axis");
+                            
+                            // Loop and write X and Y points
+                            for (int i = 0; i < x.length; i++) 
+                            {
+                                writer.println(x[i] + "," + y[i]);
+
+                                if ((i & 0xFFFF) == 0) 
+                                {
+                                    checkCancelled();
+                                    reportProgress(i, x.length);
+                                }
+                            }
+
+                            if (writer.checkError())
+                                throw new IOException("Error writing " + outputFile);
+                        } catch (CancellationException e) {
+                            // Don't leave half a file behind
+                            outputFile.delete();
+                            throw e;
+                        }
+
+                        return null;
+                    }
+
+                    @Override
+                    protected void succeeded(Void result) 
+                    {
+                    }
+                });
             }
         } else
             showErrorMessage("No data to export. Please load a CSV file.");
     }
 
+    // Run an operation in the background, with the progress bar and cancel button active while it runs
+    private void startTask(GuiTask<?> task) 
+    {
+        currentTask = task;
+        setTaskRunning(true);
+        progressBar.setString(task.description);
+
+        task.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName()))
+                    progressBar.setValue((Integer) evt.getNewValue());
+            }
+        });
+
+        task.execute();
+    }
+
+    // Buttons that change the data are off while a task runs, so only one task runs at a time
+    private void setTaskRunning(boolean running) 
+    {
+        loadCSVButton.setEnabled(!running);
+        smoothDataButton.setEnabled(!running);
+        saltDataButton.setEnabled(!running);
+        revertButton.setEnabled(!running);
+        exportCSVButton.setEnabled(!running);
+        cancelButton.setEnabled(running);
+        progressBar.setValue(0);
+
+        if (!running) 
+        {
+            progressBar.setString("");
+            currentTask = null;
+        }
+    }
+
+    // Background task of this window: shows errors, puts the plot back after a cancel and frees the buttons
+    private abstract class GuiTask<T> extends DataTask<T> 
+    {
+        private final String description;
+        private final String ioErrorMessage;
+
+        GuiTask(String description, String ioErrorMessage) 
+        {
+            this.description = description;
+            this.ioErrorMessage = ioErrorMessage;
+        }
+
+        // Format problems carry their own message, file problems get the task's message
+        @Override
+        protected void failed(Exception e) 
+        {
+            if (e instanceof IllegalArgumentException)
+                showErrorMessage(e.getMessage());
+            else if (e instanceof IOException)
+                showErrorMessage(ioErrorMessage);
+            else
+                showErrorMessage(ioErrorMessage + ": " + e);
+
+            if (xData != null)
+                plotData();
+        }
+
+        // The data is only replaced when a task succeeds, so the plot just shows it again
+        @Override
+        protected void cancelled() 
+        {
+            if (xData != null)
+                plotData();
+        }
+
+        @Override
+        protected void ended() 
+        {
+            setTaskRunning(false);
+        }
+    }
+
     // Main method
     public static void main(String[] args) {
         SwingUtilities.invokeLater(new Runnable() {
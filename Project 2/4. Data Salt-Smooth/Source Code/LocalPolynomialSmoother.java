@@ -0,0 +1,189 @@
+//LocalPolynomialSmoother
+//Base class for the kernels that fit a polynomial to the window around each point by (weighted) least squares
+//and use the fitted value at that point. Because the points are evenly spaced, the fit is the same linear
+//combination of the window values every time, so the coefficients are worked out once per position in the
+//window and each point costs O(window). At the ends of the series the window stops at the first or last point
+//and the fit is evaluated off-center, which follows the trend at the edges instead of flattening it.
+
+public abstract class LocalPolynomialSmoother extends WindowSmoother
+{
+	protected final int degree;
+
+    // Coefficient rows for full windows, one per position of the point in the window (made when first needed)
+    private final double[][] rows;
+
+    // Centered fit of the given degree over window points
+    protected LocalPolynomialSmoother(int window, int degree)
+    {
+        super(window, window / 2);
+
+        if (degree < 0 || degree >= window)
+            throw new IllegalArgumentException("Degree must be at least 0 and less than the window size.");
+
+        this.degree = degree;
+        this.rows = new double[window][];
+    }
+
+    // Getters
+
+    public int getDegree() {
+        return degree;
+    }
+
+    // Least-squares weight of window point k when fitting for the point at position p of an m-point window
+    protected abstract double weight(int k, int p, int m);
+
+    @Override
+    public Smoother.Stream newStream()
+    {
+        return new Stream();
+    }
+
+    // Coefficients c so that the fitted value at position p of an m-point window is sum c[k] * y[k]
+    private double[] coefficients(int p, int m)
+    {
+        int d = Math.min(degree, m - 1);
+        int size = d + 1;
+
+        // Offsets are scaled by the window size to keep the powers (and the normal equations) well behaved
+        double scale = Math.max(1, m - 1);
+        double[] w = new double[m];
+        double[][] powers = new double[m][size];
+
+        for (int k = 0; k < m; k++)
+        {
+            w[k] = weight(k, p, m);
+
+            double t = (k - p) / scale;
+            powers[k][0] = 1.0;
+            for (int j = 1; j < size; j++)
+                powers[k][j] = powers[k][j - 1] * t;
+        }
+
+        // Normal equations (X^T W X) z = e0; the fitted value at t = 0 is then sum w[k] * (x_k . z) * y[k]
+        double[][] a = new double[size][size + 1];
+        for (int r = 0; r < size; r++)
+        {
+            for (int c = 0; c < size; c++)
+                for (int k = 0; k < m; k++)
+                    a[r][c] += w[k] * powers[k][r] * powers[k][c];
+
+            a[r][size] = (r == 0) ? 1.0 : 0.0;
+        }
+
+        double[] z = solve(a);
+        double[] row = new double[m];
+
+        for (int k = 0; k < m; k++)
+        {
+            double dot = 0.0;
+            for (int j = 0; j < size; j++)
+                dot += powers[k][j] * z[j];
+
+            row[k] = w[k] * dot;
+        }
+
+        return row;
+    }
+
+    // Solve an augmented system by Gaussian elimination with partial pivoting
+    private static double[] solve(double[][] a)
+    {
+        int n = a.length;
+
+        for (int col = 0; col < n; col++)
+        {
+            int pivot = col;
+            for (int r = col + 1; r < n; r++)
+                if (Math.abs(a[r][col]) > Math.abs(a[pivot][col]))
+                    pivot = r;
+
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+
+            if (a[col][col] == 0.0)
+                throw new ArithmeticException("Singular least-squares system.");
+
+            for (int r = col + 1; r < n; r++)
+            {
+                double factor = a[r][col] / a[col][col];
+                for (int c = col; c <= n; c++)
+                    a[r][c] -= factor * a[col][c];
+            }
+        }
+
+        double[] x = new double[n];
+        for (int r = n - 1; r >= 0; r--)
+        {
+            double sum = a[r][n];
+            for (int c = r + 1; c < n; c++)
+                sum -= a[r][c] * x[c];
+
+            x[r] = sum / a[r][r];
+        }
+
+        return x;
+    }
+
+    // Coefficient row for position p of a full window (streams on other threads may share the rows)
+    private double[] row(int p)
+    {
+        synchronized (rows)
+        {
+            if (rows[p] == null)
+                rows[p] = coefficients(p, window);
+
+            return rows[p];
+        }
+    }
+
+    private class Stream extends WindowStream
+    {
+        // Row for a point in the middle of the series, used for almost every point
+        private final double[] center = row(before);
+
+        // Coefficient rows for a series shorter than the window, made when the stream finishes
+        private double[][] shortRows;
+
+        @Override
+        public void reset()
+        {
+            super.reset();
+            shortRows = null;
+        }
+
+        // The first points wait for a full window, since their fit uses all of it
+        @Override
+        protected long lastReady()
+        {
+            if (!finished && count < window)
+                return -1;
+
+            return super.lastReady();
+        }
+
+        @Override
+        protected double compute(long i)
+        {
+            // Window start: centered, but kept inside the series
+            int m = (int) Math.min(window, count);
+            long start = Math.min(Math.max(0, i - before), count - m);
+            int p = (int) (i - start);
+
+            double[] c;
+            if (m == window)
+                c = (p == before) ? center : row(p);
+            else
+            {
+                if (shortRows == null)
+                    shortRows = new double[m][];
+                if (shortRows[p] == null)
+                    shortRows[p] = coefficients(p, m);
+                c = shortRows[p];
+            }
+
+            return dot(c, 0, start, m);
+        }
+    }
+}
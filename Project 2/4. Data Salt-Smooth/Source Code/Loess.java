@@ -0,0 +1,34 @@
+//Loess
+//LOESS (locally weighted regression): fits a polynomial to the window around each point by least squares,
+//weighting the points with the tricube function (1 - d^3)^3 so the fit follows nearby points most.
+//The window plays the role of LOESS's span (the number of nearest points used in each fit).
+
+public class Loess extends LocalPolynomialSmoother
+{
+	// Locally quadratic LOESS
+    public Loess(int window)
+    {
+        this(window, Math.min(2, window - 1));
+    }
+
+    // LOESS fitting a polynomial of the given degree over window points
+    public Loess(int window, int degree)
+    {
+        super(window, degree);
+    }
+
+    @Override
+    public String getName() {
+        return "LOESS";
+    }
+
+    // Tricube weight of the distance to point p, scaled so the farthest point in the window still counts a little
+    @Override
+    protected double weight(int k, int p, int m)
+    {
+        double d = Math.abs(k - p) / (double) (Math.max(p, m - 1 - p) + 1);
+        double u = 1.0 - d * d * d;
+
+        return u * u * u;
+    }
+}
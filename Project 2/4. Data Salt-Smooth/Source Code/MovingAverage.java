@@ -0,0 +1,96 @@
+//MovingAverage
+//Simple moving average with any window size, O(1) work per point and no allocation per point.
+//The stream keeps a running sum of the values in the current window, adding each value as it enters and
+//subtracting it as it leaves. Every time a full window has gone by, the sum is rebuilt from the ring so
+//rounding errors from add/subtract can't pile up.
+//Centered mode averages the points around each value; trailing mode averages each value with the ones
+//before it. Near the ends of the series the window shrinks to the points that exist.
+
+public class MovingAverage extends WindowSmoother
+{
+	private final boolean centered;
+
+    // Moving average over window points, centered or trailing
+    public MovingAverage(int window, boolean centered)
+    {
+        // Even centered windows take the extra point from before the current one
+        super(window, centered ? window / 2 : window - 1);
+        this.centered = centered;
+    }
+
+    // Getters
+
+    public boolean isCentered() {
+        return centered;
+    }
+
+    @Override
+    public String getName() {
+        return "Moving Average";
+    }
+
+    // The running sum is rebuilt whenever a full window ends on a multiple of window, and from then on it
+    // only depends on the values. Starting at the last such window before point i (on a multiple of window,
+    // so the stream sees it at the same place) gives bit-for-bit the same sum at i as the whole series
+    @Override
+    public long warmUpStart(long i)
+    {
+        long rebuilt = (i + after + 1) / window * window - window;
+        return Math.max(0, rebuilt);
+    }
+
+    @Override
+    public Stream newStream()
+    {
+        return new Stream();
+    }
+
+    // Streaming moving average
+    public class Stream extends WindowStream
+    {
+        // The running sum covers points [sumStart, sumEnd)
+        private long sumStart;
+        private long sumEnd;
+        private double sum;
+
+        @Override
+        public void reset()
+        {
+            super.reset();
+            sumStart = 0;
+            sumEnd = 0;
+            sum = 0.0;
+        }
+
+        @Override
+        protected double compute(long i)
+        {
+            long start = windowStart(i);
+            long end = windowEnd(i) + 1;
+
+            // Slide the window: add the values that entered, then drop the ones that left
+            while (sumEnd < end)
+                sum += get(sumEnd++);
+
+            while (sumStart < start)
+                sum -= get(sumStart++);
+
+            // Once per full window, start the sum over from the stored values
+            if (sumEnd % window == 0 && sumEnd - sumStart == window)
+                resum();
+
+            return sum / (sumEnd - sumStart);
+        }
+
+        // Add up the values in the window again, oldest first
+        private void resum()
+        {
+            double total = 0.0;
+
+            for (long k = sumStart; k < sumEnd; k++)
+                total += get(k);
+
+            sum = total;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+//NoiseGenerator
+//Seeded noise for salting data. Four noise models are available:
+//    Gaussian        - adds normal noise with standard deviation amplitude to every point
+//    Uniform         - adds noise spread evenly over [-amplitude, amplitude] to every point
+//    Salt and pepper - a fraction of the points jump up or down by exactly amplitude
+//    Impulse         - a fraction of the points get a spike of random size up to amplitude, up or down
+//Every salt call splits a new generator off the seeded root, and the data is cut into fixed-size blocks that
+//each split their own generator from that one in block order. A block's noise only depends on the seed, how
+//many salts came before and the block number, so the same seed always gives the same noise whether the blocks
+//run on one thread or on all of them.
+
+public final class NoiseGenerator
+{
+	// Noise models
+    public static final int GAUSSIAN = 0;
+    public static final int UNIFORM = 1;
+    public static final int SALT_AND_PEPPER = 2;
+    public static final int IMPULSE = 3;
+
+    // Names of the models in the order of their constants, for the GUIs
+    public static final String[] MODEL_NAMES = { "Gaussian", "Uniform", "Salt and Pepper", "Impulse" };
+
+    // Generator used when none is named (splittable, fast, and good statistical quality)
+    public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+
+    // Fraction of points hit by salt-and-pepper and impulse noise unless set otherwise
+    private static final double DEFAULT_PROBABILITY = 0.05;
+
+    // Points per block, each block has its own generator
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    // Below this many points the blocks are salted on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    private final int model;
+    private final double amplitude;
+    private final double probability;
+    private final long seed;
+    private final SplittableGenerator root;
+
+    // Noise of the given model and amplitude from the default generator
+    public NoiseGenerator(int model, double amplitude, long seed)
+    {
+        this(model, amplitude, DEFAULT_PROBABILITY, seed, DEFAULT_ALGORITHM);
+    }
+
+    // Noise with every setting given. algorithm names a splittable java.util.random generator
+    // (like "L64X128MixRandom" or "SplittableRandom")
+    public NoiseGenerator(int model, double amplitude, double probability, long seed, String algorithm)
+    {
+        if (model < GAUSSIAN || model > IMPULSE)
+            throw new IllegalArgumentException("Unknown noise model: " + model);
+
+        if (!(amplitude >= 0.0) || Double.isInfinite(amplitude))
+            throw new IllegalArgumentException("Amplitude must be zero or positive.");
+
+        if (!(probability >= 0.0 && probability <= 1.0))
+            throw new IllegalArgumentException("Probability must be in [0, 1].");
+
+        RandomGeneratorFactory<?> factory = RandomGeneratorFactory.of(algorithm);
+        if (!factory.isSplittable())
+            throw new IllegalArgumentException(algorithm + " is not a splittable generator.");
+
+        this.model = model;
+        this.amplitude = amplitude;
+        this.probability = probability;
+        this.seed = seed;
+        this.root = (SplittableGenerator) factory.create(seed);
+    }
+
+    // Getters
+
+    public int getModel() {
+        return model;
+    }
+
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Add noise to every value in place
+    public void salt(double[] data)
+    {
+        run(data, null, false);
+    }
+
+    // Add noise to whole-number data in place, rounding each salted value to the nearest int
+    public void salt(int[] data)
+    {
+        run(null, data, false);
+    }
+
+    // Fill an array with the noise itself (what salt would add to all-zero data)
+    public void fill(double[] noise)
+    {
+        run(noise, null, true);
+    }
+
+    // Split this run's generators off the root in block order, then salt the blocks (in parallel when large)
+    private void run(double[] data, int[] intData, boolean replace)
+    {
+        int length = (data != null) ? data.length : intData.length;
+        int blocks = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        SplittableGenerator runGenerator;
+        synchronized (root)
+        {
+            runGenerator = root.split();
+        }
+
+        SplittableGenerator[] generators = new SplittableGenerator[blocks];
+        for (int b = 0; b < blocks; b++)
+            generators[b] = runGenerator.split();
+
+        BlockTask task = new BlockTask(generators, data, intData, replace, 0, blocks);
+
+        if (length < PARALLEL_THRESHOLD)
+            task.compute();
+        else
+            ForkJoinPool.commonPool().invoke(task);
+    }
+
+    // Next noise value for one point
+    private double noise(SplittableGenerator random)
+    {
+        switch (model)
+        {
+            case GAUSSIAN:
+                return amplitude * random.nextGaussian();
+            case UNIFORM:
+                return amplitude * (2.0 * random.nextDouble() - 1.0);
+            case SALT_AND_PEPPER:
+                if (random.nextDouble() >= probability)
+                    return 0.0;
+                return random.nextBoolean() ? amplitude : -amplitude;
+            default:
+                if (random.nextDouble() >= probability)
+                    return 0.0;
+                return amplitude * (2.0 * random.nextDouble() - 1.0);
+        }
+    }
+
+    // Salts blocks [from, to), splitting in half down to single blocks
+    private final class BlockTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableGenerator[] generators;
+        private final double[] data;
+        private final int[] intData;
+        private final boolean replace;
+        private final int from;
+        private final int to;
+
+        BlockTask(SplittableGenerator[] generators, double[] data, int[] intData, boolean replace, int from, int to)
+        {
+            this.generators = generators;
+            this.data = data;
+            this.intData = intData;
+            this.replace = replace;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > 1 && getPool() != null)
+            {
+                int mid = from + (to - from) / 2;
+                invokeAll(new BlockTask(generators, data, intData, replace, from, mid),
+                        new BlockTask(generators, data, intData, replace, mid, to));
+                return;
+            }
+
+            for (int b = from; b < to; b++)
+                saltBlock(b);
+        }
+
+        private void saltBlock(int b)
+        {
+            SplittableGenerator random = generators[b];
+            int start = b * BLOCK_SIZE;
+
+            if (data != null)
+            {
+                int end = Math.min(data.length, start + BLOCK_SIZE);
+                for (int i = start; i < end; i++)
+                    data[i] = replace ? noise(random) : data[i] + noise(random);
+            }
+            else
+            {
+                int end = Math.min(intData.length, start + BLOCK_SIZE);
+                for (int i = start; i < end; i++)
+                    intData[i] = (int) Math.round(intData[i] + noise(random));
+            }
+        }
+    }
+}
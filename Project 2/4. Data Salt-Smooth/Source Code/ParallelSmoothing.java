@@ -0,0 +1,149 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//ParallelSmoothing
+//Smooths very large series on the fork/join pool. The series is cut into chunks and each chunk gets its own
+//stream, which starts a little before the chunk (the halo, at least the kernel's look-behind) and reads a
+//little past it (the look-ahead), then only writes the chunk's own points. Each kernel says where its stream
+//has to start (Smoother.warmUpStart) for the values to come out exactly as in one pass over the whole series,
+//so the result is bit-for-bit identical to Smoother.smooth. Kernels that depend on the whole history (the
+//exponential average) can't be split this way and run on the calling thread.
+
+public final class ParallelSmoothing
+{
+	// Below this many points everything stays on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Smallest chunk worth a task (chunks are also kept several windows long so the halos stay small)
+    private static final int MIN_CHUNK = 1 << 14;
+
+    // Static helper class, no objects needed
+    private ParallelSmoothing()
+    {
+    }
+
+    // Smooth a whole array into output, in parallel when the series is large enough
+    public static void smooth(Smoother smoother, double[] input, double[] output)
+    {
+        if (output.length < input.length)
+            throw new IllegalArgumentException("Output array is too short.");
+
+        if (!splittable(smoother, input.length))
+        {
+            smoother.smooth(input, output);
+            return;
+        }
+
+        ForkJoinPool.commonPool().invoke(new ChunkTask(smoother, input, output, null, null, 0, input.length, chunkSize(smoother, input.length)));
+    }
+
+    // Smooth whole-number data, rounding each smoothed value to the nearest int
+    public static void smooth(Smoother smoother, int[] input, int[] output)
+    {
+        if (output.length < input.length)
+            throw new IllegalArgumentException("Output array is too short.");
+
+        if (!splittable(smoother, input.length))
+        {
+            smoother.smooth(input, output);
+            return;
+        }
+
+        ForkJoinPool.commonPool().invoke(new ChunkTask(smoother, null, null, input, output, 0, input.length, chunkSize(smoother, input.length)));
+    }
+
+    // Whether the series is big enough to split and the kernel only looks a bounded distance away
+    private static boolean splittable(Smoother smoother, int length)
+    {
+        long reach = (long) smoother.getLookBehind() + smoother.getLookAhead() + 1;
+
+        return length >= PARALLEL_THRESHOLD && smoother.getLookBehind() != Integer.MAX_VALUE
+                && reach * 4 <= length;
+    }
+
+    // About four chunks per worker thread, but never shorter than four windows
+    private static int chunkSize(Smoother smoother, int length)
+    {
+        long reach = (long) smoother.getLookBehind() + smoother.getLookAhead() + 1;
+        long chunk = length / (4L * ForkJoinPool.getCommonPoolParallelism());
+
+        return (int) Math.max(chunk, Math.max(MIN_CHUNK, reach * 4));
+    }
+
+    // Smooths points [from, to) of either the double or the int arrays, splitting in half down to chunkSize
+    private static final class ChunkTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Smoother smoother;
+        private final double[] input;
+        private final double[] output;
+        private final int[] intInput;
+        private final int[] intOutput;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        ChunkTask(Smoother smoother, double[] input, double[] output, int[] intInput, int[] intOutput, int from, int to, int chunkSize)
+        {
+            this.smoother = smoother;
+            this.input = input;
+            this.output = output;
+            this.intInput = intInput;
+            this.intOutput = intOutput;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= chunkSize)
+            {
+                smoothChunk();
+                return;
+            }
+
+            int mid = from + (to - from) / 2;
+            invokeAll(new ChunkTask(smoother, input, output, intInput, intOutput, from, mid, chunkSize),
+                    new ChunkTask(smoother, input, output, intInput, intOutput, mid, to, chunkSize));
+        }
+
+        // Stream from the warm-up start through the look-ahead past the chunk, keeping only the chunk's points
+        private void smoothChunk()
+        {
+            int length = (input != null) ? input.length : intInput.length;
+            int start = (int) smoother.warmUpStart(from);
+            int end = (int) Math.min(length, (long) to + smoother.getLookAhead());
+
+            Smoother.Stream stream = smoother.newStream();
+
+            for (int k = start; k < end; k++)
+            {
+                stream.push((input != null) ? input[k] : intInput[k]);
+                while (stream.next())
+                    store(start + (int) stream.getIndex(), stream.getValue());
+            }
+
+            // Only the last chunk reaches the real end of the series
+            if (end == length)
+            {
+                stream.finish();
+                while (stream.next())
+                    store(start + (int) stream.getIndex(), stream.getValue());
+            }
+        }
+
+        private void store(int i, double value)
+        {
+            if (i < from || i >= to)
+                return;
+
+            if (output != null)
+                output[i] = value;
+            else
+                intOutput[i] = (int) Math.round(value);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import java.util.Arrays;
+
+//RollingMedian
+//Median of a centered window, which removes salt spikes completely instead of spreading them out like an average.
+//The window is split between two heaps: a max-heap with the lower half of the values and a min-heap with
+//the upper half, so the median is always at the top. Each heap remembers where every value sits, which lets
+//the value leaving the window be removed directly, so sliding the window costs O(log window) per point.
+//Near the ends of the series the window shrinks to the points that exist.
+
+public class RollingMedian extends WindowSmoother
+{
+	// Centered median over window points
+    public RollingMedian(int window)
+    {
+        super(window, window / 2);
+    }
+
+    @Override
+    public String getName() {
+        return "Median";
+    }
+
+    @Override
+    public Smoother.Stream newStream()
+    {
+        return new Stream();
+    }
+
+    private class Stream extends WindowStream
+    {
+        // Lower half (max at the top) and upper half (min at the top); lower has the extra value when odd
+        private final SlotHeap lower = new SlotHeap(true);
+        private final SlotHeap upper = new SlotHeap(false);
+
+        // The heaps cover points [heapStart, heapEnd)
+        private long heapStart;
+        private long heapEnd;
+
+        @Override
+        public void reset()
+        {
+            super.reset();
+            lower.clear();
+            upper.clear();
+            heapStart = 0;
+            heapEnd = 0;
+        }
+
+        @Override
+        protected double compute(long i)
+        {
+            long start = windowStart(i);
+            long end = windowEnd(i) + 1;
+
+            // Drop the values that left first, so their ids are free for the ones entering
+            while (heapStart < start)
+                remove(heapStart++);
+
+            while (heapEnd < end)
+                insert(heapEnd++);
+
+            if (lower.size > upper.size)
+                return lower.topValue();
+
+            return (lower.topValue() + upper.topValue()) / 2.0;
+        }
+
+        // Add point k to the heaps. Entries are identified by k % window, which is unique within a window
+        private void insert(long k)
+        {
+            double x = get(k);
+            int slot = (int) (k % window);
+
+            if (lower.size == 0 || x <= lower.topValue())
+                lower.add(slot, x);
+            else
+                upper.add(slot, x);
+
+            rebalance();
+        }
+
+        // Take point k back out of whichever heap holds it
+        private void remove(long k)
+        {
+            int slot = (int) (k % window);
+
+            if (lower.contains(slot))
+                lower.remove(slot);
+            else
+                upper.remove(slot);
+
+            rebalance();
+        }
+
+        // Keep lower the same size as upper or one bigger
+        private void rebalance()
+        {
+            if (lower.size > upper.size + 1)
+            {
+                int slot = lower.top();
+                double x = lower.topValue();
+                lower.remove(slot);
+                upper.add(slot, x);
+            }
+            else if (upper.size > lower.size)
+            {
+                int slot = upper.top();
+                double x = upper.topValue();
+                upper.remove(slot);
+                lower.add(slot, x);
+            }
+        }
+    }
+
+    // Binary heap of value ids (slots) that tracks the position of each one so any of them can be removed
+    private final class SlotHeap
+    {
+        private final boolean max;
+        private final int[] slots = new int[window];
+        private final double[] values = new double[window];
+
+        // Position of each slot in the heap, or -1 if it isn't in this heap
+        private final int[] position = new int[window];
+        private int size;
+
+        SlotHeap(boolean max)
+        {
+            this.max = max;
+            clear();
+        }
+
+        void clear()
+        {
+            Arrays.fill(position, -1);
+            size = 0;
+        }
+
+        boolean contains(int slot)
+        {
+            return position[slot] >= 0;
+        }
+
+        int top()
+        {
+            return slots[0];
+        }
+
+        double topValue()
+        {
+            return values[0];
+        }
+
+        void add(int slot, double x)
+        {
+            slots[size] = slot;
+            values[size] = x;
+            position[slot] = size;
+            siftUp(size++);
+        }
+
+        void remove(int slot)
+        {
+            int p = position[slot];
+            position[slot] = -1;
+
+            if (--size == p)
+                return;
+
+            // Move the last entry into the gap and let it settle in whichever direction it needs
+            int moved = slots[size];
+            move(size, p);
+            siftUp(p);
+
+            if (position[moved] == p)
+                siftDown(p);
+        }
+
+        // Whether the entry at a belongs above the entry at b
+        private boolean above(int a, int b)
+        {
+            return max ? values[a] > values[b] : values[a] < values[b];
+        }
+
+        private void siftUp(int p)
+        {
+            while (p > 0)
+            {
+                int parent = (p - 1) / 2;
+                if (!above(p, parent))
+                    break;
+
+                swap(p, parent);
+                p = parent;
+            }
+        }
+
+        private void siftDown(int p)
+        {
+            while (true)
+            {
+                int child = 2 * p + 1;
+                if (child >= size)
+                    break;
+
+                if (child + 1 < size && above(child + 1, child))
+                    child++;
+
+                if (!above(child, p))
+                    break;
+
+                swap(p, child);
+                p = child;
+            }
+        }
+
+        private void move(int from, int to)
+        {
+            slots[to] = slots[from];
+            values[to] = values[from];
+            position[slots[to]] = to;
+        }
+
+        private void swap(int a, int b)
+        {
+            int slot = slots[a];
+            double x = values[a];
+
+            move(b, a);
+            slots[b] = slot;
+            values[b] = x;
+            position[slot] = b;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+//SavitzkyGolay
+//Savitzky-Golay filter: fits a polynomial to the window around each point by ordinary least squares.
+//Unlike an average it keeps the height and width of peaks, which makes it a good choice for smoothing
+//signals with sharp features. Degree 2 or 3 is the usual choice.
+
+public class SavitzkyGolay extends LocalPolynomialSmoother
+{
+	// Savitzky-Golay filter with a quadratic fit
+    public SavitzkyGolay(int window)
+    {
+        this(window, Math.min(2, window - 1));
+    }
+
+    // Savitzky-Golay filter fitting a polynomial of the given degree over window points
+    public SavitzkyGolay(int window, int degree)
+    {
+        super(window, degree);
+    }
+
+    @Override
+    public String getName() {
+        return "Savitzky-Golay";
+    }
+
+    // Every point in the window counts the same
+    @Override
+    protected double weight(int k, int p, int m)
+    {
+        return 1.0;
+    }
+}
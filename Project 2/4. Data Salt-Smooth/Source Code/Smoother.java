@@ -0,0 +1,96 @@
+//Smoother
+//A smoothing kernel that the GUIs can pick from (see Smoothers for the list).
+//Every kernel works as a stream: values are pushed in one at a time and smoothed values come out in order,
+//each costing a bounded amount of work, so series of any length (or with no end) can be smoothed.
+//The array methods run a stream over the whole series and write into a separate output array.
+
+public interface Smoother
+{
+	// Name shown in the GUI
+    String getName();
+
+    // Points before and after each point that its smoothed value can depend on in the middle of the series
+    // (Integer.MAX_VALUE before means all of the earlier points, as with an exponential average)
+    int getLookBehind();
+    int getLookAhead();
+
+    // New stream with its own buffers
+    Stream newStream();
+
+    // Where a stream has to start so that its value for point i (in the middle of a long series) is exactly
+    // the same as from a stream that started at point 0. Used to smooth chunks of a series separately
+    default long warmUpStart(long i)
+    {
+        return Math.max(0, i - getLookBehind());
+    }
+
+    // Smooth a whole array into output (which must be at least as long)
+    default void smooth(double[] input, double[] output)
+    {
+        smooth(input, 0, input.length, output, 0);
+    }
+
+    // Smooth input[offset, offset + length) into output starting at outputOffset
+    default void smooth(double[] input, int offset, int length, double[] output, int outputOffset)
+    {
+        if (offset < 0 || length < 0 || offset > input.length - length || outputOffset < 0 || outputOffset > output.length - length)
+            throw new IllegalArgumentException("Invalid slice bounds.");
+
+        if (input == output && offset != outputOffset)
+            throw new IllegalArgumentException("Input and output may not overlap.");
+
+        Stream stream = newStream();
+
+        for (int i = offset; i < offset + length; i++)
+        {
+            stream.push(input[i]);
+            while (stream.next())
+                output[outputOffset + (int) stream.getIndex()] = stream.getValue();
+        }
+
+        stream.finish();
+        while (stream.next())
+            output[outputOffset + (int) stream.getIndex()] = stream.getValue();
+    }
+
+    // Smooth whole-number data, rounding each smoothed value to the nearest int
+    default void smooth(int[] input, int[] output)
+    {
+        if (output.length < input.length)
+            throw new IllegalArgumentException("Output array is too short.");
+
+        Stream stream = newStream();
+
+        for (int value : input)
+        {
+            stream.push(value);
+            while (stream.next())
+                output[(int) stream.getIndex()] = (int) Math.round(stream.getValue());
+        }
+
+        stream.finish();
+        while (stream.next())
+            output[(int) stream.getIndex()] = (int) Math.round(stream.getValue());
+    }
+
+    // Streaming smoother. After each push (and after finish), call next until it returns false and read each
+    // value as it comes; a kernel only keeps the values it still needs, so skipped values are lost.
+    interface Stream
+    {
+        // Add the next value of the series
+        void push(double x);
+
+        // No more values are coming, so the points at the end can be finished
+        void finish();
+
+        // Move to the next smoothed value. Returns false if it isn't ready yet (or the series is done)
+        boolean next();
+
+        // The current smoothed value and its position in the series
+        double getValue();
+        long getIndex();
+
+        // Start over as an empty stream
+        void reset();
+    }
+}
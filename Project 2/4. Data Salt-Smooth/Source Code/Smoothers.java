@@ -0,0 +1,37 @@
+//Smoothers
+//The smoothing kernels the GUIs can choose from, by name.
+
+public final class Smoothers
+{
+	// Names in the order they are listed in the GUIs
+    public static final String[] NAMES = {
+        "Moving Average", "Exponential Moving Average", "Gaussian", "Median", "Savitzky-Golay", "LOESS"
+    };
+
+    // Static helper class, no objects needed
+    private Smoothers()
+    {
+    }
+
+    // Create the named kernel over window points
+    public static Smoother create(String name, int window)
+    {
+        switch (name)
+        {
+            case "Moving Average":
+                return new MovingAverage(window, true);
+            case "Exponential Moving Average":
+                return new ExponentialMovingAverage(window);
+            case "Gaussian":
+                return new GaussianSmoother(window);
+            case "Median":
+                return new RollingMedian(window);
+            case "Savitzky-Golay":
+                return new SavitzkyGolay(window);
+            case "LOESS":
+                return new Loess(window);
+            default:
+                throw new IllegalArgumentException("Unknown smoother: " + name);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+//WindowSmoother
+//Base class for the kernels that look at a fixed-size window of points around each one.
+//WindowStream keeps the last window of values in a ring buffer and hands out the smoothed values in order;
+//each kernel only has to say how one point is computed from the values around it.
+
+public abstract class WindowSmoother implements Smoother
+{
+	protected final int window;
+
+    // Points before and after the current one that are inside its window
+    protected final int before;
+    protected final int after;
+
+    // Window of the given size with the given number of points before the current one
+    protected WindowSmoother(int window, int before)
+    {
+        if (window < 1)
+            throw new IllegalArgumentException("Window size must be at least 1.");
+
+        if (before < 0 || before >= window)
+            throw new IllegalArgumentException("Invalid window position.");
+
+        this.window = window;
+        this.before = before;
+        this.after = window - 1 - before;
+    }
+
+    // Getters
+
+    public int getWindow() {
+        return window;
+    }
+
+    @Override
+    public int getLookBehind() {
+        return before;
+    }
+
+    @Override
+    public int getLookAhead() {
+        return after;
+    }
+
+    // Stream over a ring buffer holding the last window + 1 values that were pushed (one more than a window,
+    // so a kernel can still read the value that just left the window)
+    protected abstract class WindowStream implements Smoother.Stream
+    {
+        private final double[] ring = new double[window + 1];
+
+        // Values pushed so far, the ring slot for the next one, and whether the input has ended
+        protected long count;
+        private int slot;
+        protected boolean finished;
+
+        // The latest smoothed value and its position in the series
+        private double value;
+        private long index = -1;
+
+        @Override
+        public void push(double x)
+        {
+            if (finished)
+                throw new IllegalStateException("Stream has already been finished.");
+
+            if (index < lastReady())
+                throw new IllegalStateException("Smoothed values must be taken with next() before pushing more.");
+
+            ring[slot] = x;
+            if (++slot == ring.length)
+                slot = 0;
+
+            count++;
+        }
+
+        @Override
+        public void finish()
+        {
+            finished = true;
+        }
+
+        @Override
+        public boolean next()
+        {
+            if (index >= lastReady())
+                return false;
+
+            value = compute(++index);
+            return true;
+        }
+
+        @Override
+        public void reset()
+        {
+            count = 0;
+            slot = 0;
+            finished = false;
+            index = -1;
+        }
+
+        // Getters
+
+        @Override
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public long getIndex() {
+            return index;
+        }
+
+        // Last point that can be computed from the values pushed so far
+        protected long lastReady()
+        {
+            return finished ? count - 1 : count - 1 - after;
+        }
+
+        // Value at position k of the series (only the last window + 1 values are still kept)
+        protected final double get(long k)
+        {
+            int s = slot - (int) (count - k);
+            return ring[(s < 0) ? s + ring.length : s];
+        }
+
+        // Sum of weights[weightOffset + j] * get(start + j) for j = 0..length-1, added up in that order.
+        // The ring is walked as (at most) two plain array runs instead of wrapping every index
+        protected final double dot(double[] weights, int weightOffset, long start, int length)
+        {
+            int s = slot - (int) (count - start);
+            if (s < 0)
+                s += ring.length;
+
+            int first = Math.min(length, ring.length - s);
+            double sum = 0.0;
+
+            for (int j = 0; j < first; j++)
+                sum += weights[weightOffset + j] * ring[s + j];
+
+            for (int j = first; j < length; j++)
+                sum += weights[weightOffset + j] * ring[j - first];
+
+            return sum;
+        }
+
+        // First and last points of the (possibly cut short) window around point i
+        protected final long windowStart(long i)
+        {
+            return Math.max(0, i - before);
+        }
+
+        protected final long windowEnd(long i)
+        {
+            return Math.min(count - 1, i + after);
+        }
+
+        // Smoothed value of point i. Points are computed in order, with the values up to lastReady pushed
+        protected abstract double compute(long i);
+    }
+}
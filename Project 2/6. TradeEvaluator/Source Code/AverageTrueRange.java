@@ -0,0 +1,79 @@
+//AverageTrueRange
+//ATR: Wilder's average of the true range, the largest of today's high minus low and the gaps from
+//yesterday's close to today's high and low. It starts as the simple average of the first period true
+//ranges. Fed single values, each value is a bar whose high, low and close are all that value.
+
+public class AverageTrueRange implements Indicator
+{
+	private final int period;
+    private double previousClose = Double.NaN;
+    private long count;
+    private double sum;
+    private double value = Double.NaN;
+
+    // The usual 14-bar ATR
+    public AverageTrueRange()
+    {
+        this(14);
+    }
+
+    // ATR over period bars
+    public AverageTrueRange(int period)
+    {
+        if (period < 1)
+            throw new IllegalArgumentException("Period must be at least 1.");
+
+        this.period = period;
+    }
+
+    // Getters
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double update(double x)
+    {
+        return update(x, x, x, 0);
+    }
+
+    @Override
+    public double update(double high, double low, double close, long volume)
+    {
+        double trueRange = high - low;
+        if (!Double.isNaN(previousClose))
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+
+        previousClose = close;
+        count++;
+
+        if (count < period)
+            sum += trueRange;
+        else if (count == period)
+            value = (sum + trueRange) / period;
+        else
+            value = (value * (period - 1) + trueRange) / period;
+
+        return value;
+    }
+
+    @Override
+    public void reset()
+    {
+        previousClose = Double.NaN;
+        count = 0;
+        sum = 0.0;
+        value = Double.NaN;
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+//Backtest
+//Headless backtest engine: runs a strategy over a bar store with a starting balance, doing the trades the
+//strategy asks for at each day's close. Nothing here touches Swing, so it runs the same in the GUI, in batch
+//jobs and in many threads at once (each run only reads the bar store). A listener can be given to see every
+//day's action, as the GUI does to log the trades. Along with the profit, each run keeps the Sharpe ratio of
+//its daily returns and its largest drawdown, both updated day by day without storing the equity curve.
+
+public final class Backtest
+{
+	// Actions passed to the listener
+    public static final String BUY = "BUY";
+    public static final String SELL = "SELL";
+    public static final String HOLD = "HOLD";
+
+    // Trading days in a year, to annualize the Sharpe ratio of daily returns
+    public static final int TRADING_DAYS = 252;
+
+    private final BarStore bars;
+    private final double startingBalance;
+
+    public Backtest(BarStore bars, double startingBalance)
+    {
+        if (bars.isEmpty())
+            throw new IllegalArgumentException("No bars to backtest.");
+
+        this.bars = bars;
+        this.startingBalance = startingBalance;
+    }
+
+    // Getters
+
+    public BarStore getBars() {
+        return bars;
+    }
+
+    public double getStartingBalance() {
+        return startingBalance;
+    }
+
+    // Run a strategy without listening to the trades
+    public Result run(Strategy strategy)
+    {
+        return run(strategy, null);
+    }
+
+    // Run a strategy, telling the listener (if any) what was done each day
+    public Result run(Strategy strategy, TradeListener listener)
+    {
+        Indicator[] indicators = strategy.getIndicators();
+        for (Indicator indicator : indicators)
+            indicator.reset();
+
+    	// Initialize counters and starting balance
+        double balance = startingBalance;
+        int shares = 0;
+        int numOfBuys = 0;
+        int numOfSells = 0;
+        int numOfHolds = 0;
+
+        // Daily return statistics (Welford's running mean and squared differences) and the equity peak
+        double previousEquity = startingBalance;
+        double meanReturn = 0.0;
+        double returnSquares = 0.0;
+        double peakEquity = startingBalance;
+        double maxDrawdown = 0.0;
+
+        // Loop through the days
+        for (int day = 0; day < bars.size(); day++) 
+        {
+            double close = bars.getClose(day);
+
+            // Indicators see the day's bar before the strategy decides
+            for (Indicator indicator : indicators)
+                indicator.update(bars.getHigh(day), bars.getLow(day), close, bars.getVolume(day));
+
+            // tradeDecision determines the amount of shares to buy (or sell if negative)
+            int tradeDecision = strategy.onBar(bars, day, balance, shares);
+
+            // If trade decision is higher than 0 (buying)
+            if (tradeDecision > 0) 
+            {
+                int numberOfSharesToBuy = Math.min(tradeDecision, (int) (balance / close));
+                balance -= numberOfSharesToBuy * close;
+                shares += numberOfSharesToBuy;
+                numOfBuys++;
+
+                if (listener != null)
+                    listener.onTrade(bars, day, BUY, numberOfSharesToBuy);
+            } 
+            // If trade decision is less than 0 (selling)
+            else if (tradeDecision < 0 && shares > 0) 
+            {
+                int numberOfSharesToSell = Math.min(-tradeDecision, shares);
+                balance += numberOfSharesToSell * close;
+                shares -= numberOfSharesToSell;
+                numOfSells++;
+
+                if (listener != null)
+                    listener.onTrade(bars, day, SELL, numberOfSharesToSell);
+            } 
+            else 
+            {
+            	// Do nothing
+                numOfHolds++;
+
+                if (listener != null)
+                    listener.onTrade(bars, day, HOLD, 0);
+            }
+
+            // Value of cash and shares at today's close
+            double equity = balance + shares * close;
+            double dailyReturn = (previousEquity > 0) ? equity / previousEquity - 1.0 : 0.0;
+            double delta = dailyReturn - meanReturn;
+            meanReturn += delta / (day + 1);
+            returnSquares += delta * (dailyReturn - meanReturn);
+            previousEquity = equity;
+
+            peakEquity = Math.max(peakEquity, equity);
+            if (peakEquity > 0)
+                maxDrawdown = Math.max(maxDrawdown, (peakEquity - equity) / peakEquity);
+        }
+
+        // Annualized Sharpe ratio of the daily returns (0 if the equity never moved)
+        double deviation = Math.sqrt(returnSquares / bars.size());
+        double sharpeRatio = (deviation > 0) ? meanReturn / deviation * Math.sqrt(TRADING_DAYS) : 0.0;
+
+        // Remaining shares are valued at the last closing price
+        double remainingSharesValue = shares * bars.getClose(bars.size() - 1);
+
+        return new Result(strategy.getName(), startingBalance, balance, shares, remainingSharesValue, numOfBuys, numOfSells, numOfHolds,
+                sharpeRatio, maxDrawdown);
+    }
+
+    // Told what the engine did on each day
+    public interface TradeListener
+    {
+        void onTrade(BarStore bars, int day, String action, int shares);
+    }
+
+    // Outcome of one run
+    public static final class Result
+    {
+        private final String strategyName;
+        private final double startingBalance;
+        private final double finalBalance;
+        private final int finalShares;
+        private final double finalSharesValue;
+        private final int buys;
+        private final int sells;
+        private final int holds;
+        private final double sharpeRatio;
+        private final double maxDrawdown;
+
+        Result(String strategyName, double startingBalance, double finalBalance, int finalShares, double finalSharesValue, int buys, int sells, int holds,
+                double sharpeRatio, double maxDrawdown)
+        {
+            this.strategyName = strategyName;
+            this.startingBalance = startingBalance;
+            this.finalBalance = finalBalance;
+            this.finalShares = finalShares;
+            this.finalSharesValue = finalSharesValue;
+            this.buys = buys;
+            this.sells = sells;
+            this.holds = holds;
+            this.sharpeRatio = sharpeRatio;
+            this.maxDrawdown = maxDrawdown;
+        }
+
+        // Getters
+
+        public String getStrategyName() {
+            return strategyName;
+        }
+
+        public double getFinalBalance() {
+            return finalBalance;
+        }
+
+        public int getFinalShares() {
+            return finalShares;
+        }
+
+        public int getBuys() {
+            return buys;
+        }
+
+        public int getSells() {
+            return sells;
+        }
+
+        public int getHolds() {
+            return holds;
+        }
+
+        // Annualized Sharpe ratio of the daily returns (risk-free rate of 0)
+        public double getSharpeRatio() {
+            return sharpeRatio;
+        }
+
+        // Largest drop from a peak in account value, as a fraction of the peak
+        public double getMaxDrawdown() {
+            return maxDrawdown;
+        }
+
+        // Cash plus remaining shares at the last close, minus the starting balance
+        public double getProfit() {
+            return finalBalance + finalSharesValue - startingBalance;
+        }
+
+        // Profit as a fraction of the starting balance
+        public double getReturn() {
+            return getProfit() / startingBalance;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-20s buys %5d  sells %5d  holds %6d  balance $%.2f  shares %d  profit $%.2f  sharpe %.2f  drawdown %.1f%%",
+                    strategyName, buys, sells, holds, finalBalance, finalShares, getProfit(), sharpeRatio, maxDrawdown * 100);
+        }
+    }
+
+    // Batch run: Backtest <csv file> [starting balance] [strategy names...] (all strategies if none are named)
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0)
+        {
+            System.out.println("Usage: java Backtest <csv file> [starting balance] [strategy names...]");
+            return;
+        }
+
+        BarStore bars = BarStore.read(args[0]);
+        double startingBalance = (args.length > 1) ? Double.parseDouble(args[1]) : 10000.0;
+        String[] names = (args.length > 2) ? Arrays.copyOfRange(args, 2, args.length) : Strategies.getNames();
+
+        Backtest backtest = new Backtest(bars, startingBalance);
+        for (String name : names)
+            System.out.println(backtest.run(Strategies.create(name)));
+    }
+}
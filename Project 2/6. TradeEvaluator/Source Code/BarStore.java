@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+//BarStore
+//Daily OHLCV bars stored by column: one primitive array each for the dates (days since 1970-01-01), open,
+//high, low, close, adjusted close and volume, about 52 bytes a bar with no object per bar. Bars are read by
+//index, and slice() gives a view of a range of bars that shares the same arrays (nothing is copied), so a
+//backtest over part of the data walks the same memory as one over all of it.
+
+public final class BarStore
+{
+	// Columns (shared between a store and its slices)
+    private final int[] dates;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] adjClose;
+    private final long[] volume;
+
+    // Bars [offset, offset + size) of the columns belong to this store
+    private final int offset;
+    private final int size;
+
+    private BarStore(int[] dates, double[] open, double[] high, double[] low, double[] close, double[] adjClose, long[] volume, int offset, int size)
+    {
+        this.dates = dates;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.adjClose = adjClose;
+        this.volume = volume;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    // Read a Date,Open,High,Low,Close,Adj Close,Volume CSV file (the header line is skipped)
+    public static BarStore read(String fileName) throws IOException
+    {
+        Builder builder = new Builder();
+
+        try (CsvParser parser = new CsvParser(fileName))
+        {
+            parser.readHeader();
+
+            // Fields are parsed in place, no split strings
+            while (parser.nextRow())
+                builder.add(parser.getEpochDay(0), parser.getDouble(1), parser.getDouble(2), parser.getDouble(3),
+                        parser.getDouble(4), parser.getDouble(5), parser.getLong(6));
+        }
+
+        return builder.build();
+    }
+
+    // Getters (i counts from the first bar of this store)
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Date as days since 1970-01-01
+    public int getEpochDay(int i) {
+        return dates[index(i)];
+    }
+
+    public LocalDate getDate(int i) {
+        return LocalDate.ofEpochDay(getEpochDay(i));
+    }
+
+    public double getOpen(int i) {
+        return open[index(i)];
+    }
+
+    public double getHigh(int i) {
+        return high[index(i)];
+    }
+
+    public double getLow(int i) {
+        return low[index(i)];
+    }
+
+    public double getClose(int i) {
+        return close[index(i)];
+    }
+
+    public double getAdjClose(int i) {
+        return adjClose[index(i)];
+    }
+
+    public long getVolume(int i) {
+        return volume[index(i)];
+    }
+
+    // Bars [from, to) of this store, sharing its columns
+    public BarStore slice(int from, int to)
+    {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of " + size + " bars");
+
+        return new BarStore(dates, open, high, low, close, adjClose, volume, offset + from, to - from);
+    }
+
+    // Bars from the first one dated on or after from up to the last one dated before to (dates must be ascending)
+    public BarStore slice(LocalDate from, LocalDate to)
+    {
+        return slice(firstOnOrAfter(from.toEpochDay()), firstOnOrAfter(to.toEpochDay()));
+    }
+
+    // Feed every bar to an indicator in order and return its last value
+    public double feed(Indicator indicator)
+    {
+        double value = indicator.getValue();
+        for (int i = offset; i < offset + size; i++)
+            value = indicator.update(high[i], low[i], close[i], volume[i]);
+
+        return value;
+    }
+
+    // Bar in the CSV format it was read from
+    public String toCSVString(int i)
+    {
+        int k = index(i);
+        return LocalDate.ofEpochDay(dates[k]) + "," + open[k] + "," + high[k] + "," + low[k] + "," + close[k] + "," + adjClose[k] + "," + volume[k];
+    }
+
+    // First bar (counting from this store's first) dated on or after the epoch day, by binary search
+    private int firstOnOrAfter(long epochDay)
+    {
+        int lowIndex = 0;
+        int highIndex = size;
+
+        while (lowIndex < highIndex)
+        {
+            int mid = (lowIndex + highIndex) >>> 1;
+            if (dates[offset + mid] < epochDay)
+                lowIndex = mid + 1;
+            else
+                highIndex = mid;
+        }
+
+        return lowIndex;
+    }
+
+    private int index(int i)
+    {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Bar " + i + " of " + size);
+
+        return offset + i;
+    }
+
+    // Collects bars one at a time, growing the columns geometrically, then trims them once in build()
+    public static final class Builder
+    {
+        private int[] dates = new int[256];
+        private double[] open = new double[256];
+        private double[] high = new double[256];
+        private double[] low = new double[256];
+        private double[] close = new double[256];
+        private double[] adjClose = new double[256];
+        private long[] volume = new long[256];
+        private int size;
+
+        // Add the next bar
+        public Builder add(int epochDay, double open, double high, double low, double close, double adjClose, long volume)
+        {
+            if (size == dates.length)
+                grow();
+
+            this.dates[size] = epochDay;
+            this.open[size] = open;
+            this.high[size] = high;
+            this.low[size] = low;
+            this.close[size] = close;
+            this.adjClose[size] = adjClose;
+            this.volume[size] = volume;
+            size++;
+
+            return this;
+        }
+
+        // Store of the bars added so far
+        public BarStore build()
+        {
+            return new BarStore(Arrays.copyOf(dates, size), Arrays.copyOf(open, size), Arrays.copyOf(high, size), Arrays.copyOf(low, size),
+                    Arrays.copyOf(close, size), Arrays.copyOf(adjClose, size), Arrays.copyOf(volume, size), 0, size);
+        }
+
+        private void grow()
+        {
+            int capacity = dates.length * 2;
+            dates = Arrays.copyOf(dates, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            adjClose = Arrays.copyOf(adjClose, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+    }
+}
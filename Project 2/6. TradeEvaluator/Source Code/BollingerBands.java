@@ -0,0 +1,63 @@
+//BollingerBands
+//Moving average of the last period values with bands a number of standard deviations above and below it.
+//The value is the middle band.
+
+public class BollingerBands implements Indicator
+{
+	private final RollingStandardDeviation deviation;
+    private final double width;
+
+    // The usual 20-bar bands two standard deviations wide
+    public BollingerBands()
+    {
+        this(20, 2.0);
+    }
+
+    // Bands over period values, width standard deviations from the middle
+    public BollingerBands(int period, double width)
+    {
+        if (!(width >= 0.0))
+            throw new IllegalArgumentException("Width must be zero or positive.");
+
+        this.deviation = new RollingStandardDeviation(period);
+        this.width = width;
+    }
+
+    // Getters
+
+    @Override
+    public double getValue() {
+        return deviation.getMean();
+    }
+
+    @Override
+    public boolean isReady() {
+        return deviation.isReady();
+    }
+
+    public double getUpper() {
+        return deviation.getMean() + width * deviation.getValue();
+    }
+
+    public double getLower() {
+        return deviation.getMean() - width * deviation.getValue();
+    }
+
+    // Where x sits between the bands: 0 at the lower band, 1 at the upper band
+    public double percentB(double x) {
+        return (x - getLower()) / (getUpper() - getLower());
+    }
+
+    @Override
+    public double update(double x)
+    {
+        deviation.update(x);
+        return getValue();
+    }
+
+    @Override
+    public void reset()
+    {
+        deviation.reset();
+    }
+}
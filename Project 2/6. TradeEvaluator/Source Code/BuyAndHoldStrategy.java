@@ -0,0 +1,50 @@
+//BuyAndHoldStrategy
+//Buys as many shares as it can (up to the cap) on the first day and holds them the entire period.
+
+public class BuyAndHoldStrategy implements Strategy
+{
+	// Default cap on shares bought
+    public static final int MAX_SHARES = 1000;
+
+    private final int maxShares;
+
+    public BuyAndHoldStrategy()
+    {
+        this(MAX_SHARES);
+    }
+
+    public BuyAndHoldStrategy(int maxShares)
+    {
+        if (maxShares < 1)
+            throw new IllegalArgumentException("Max shares must be at least 1.");
+
+        this.maxShares = maxShares;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Buy and Hold";
+    }
+
+    @Override
+    public Indicator[] getIndicators()
+    {
+        return new Indicator[0];
+    }
+
+    @Override
+    public int onBar(BarStore bars, int day, double balance, int shares)
+    {
+    	// Buy shares and hold them the entire period
+        if (shares == 0 && balance > 0) 
+        {
+            int maxSharesToBuy = (int) (balance / bars.getClose(day));
+            return Math.min(maxSharesToBuy, maxShares);
+        } 
+        else 
+        {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+//ExponentialMovingAverage
+//Exponential moving average with alpha = 2 / (period + 1). It starts from the simple average of the first
+//period values (as most charting tools do), then each value moves the average alpha of the way towards it.
+
+public class ExponentialMovingAverage implements Indicator
+{
+	private final int period;
+    private final double alpha;
+    private long count;
+    private double sum;
+    private double value = Double.NaN;
+
+    // EMA over period values
+    public ExponentialMovingAverage(int period)
+    {
+        if (period < 1)
+            throw new IllegalArgumentException("Period must be at least 1.");
+
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    // Getters
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double update(double x)
+    {
+        count++;
+
+        if (count < period)
+            sum += x;
+        else if (count == period)
+            value = (sum + x) / period;
+        else
+            value += alpha * (x - value);
+
+        return value;
+    }
+
+    @Override
+    public void reset()
+    {
+        count = 0;
+        sum = 0.0;
+        value = Double.NaN;
+    }
+}
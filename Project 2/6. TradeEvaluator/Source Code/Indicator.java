@@ -0,0 +1,87 @@
+//Indicator
+//A technical indicator that is fed one bar at a time and updates in constant time, so every indicator a
+//strategy needs is kept up to date in a single pass over the data. Indicators built on a single series
+//(moving averages, RSI, standard deviation) use the close; ATR and VWAP also use the high, low and volume.
+//Indicators can be chained with then(): the second indicator is fed the first one's values, like the MACD
+//signal line is an average of the MACD line.
+
+public interface Indicator
+{
+	// Add the next value of the series and return the updated indicator value
+    double update(double value);
+
+    // Add the next bar. Single-series indicators only use the close
+    default double update(double high, double low, double close, long volume)
+    {
+        return update(close);
+    }
+
+    // Current value (NaN until ready, unless the indicator says otherwise)
+    double getValue();
+
+    // Whether enough data has been seen for the value to mean something
+    boolean isReady();
+
+    // Start over with no data seen
+    void reset();
+
+    // An indicator of this indicator: next is fed this one's value each time this one is ready
+    default Indicator then(Indicator next)
+    {
+        return new Chain(this, next);
+    }
+
+    // Two indicators in a row, as made by then()
+    final class Chain implements Indicator
+    {
+        private final Indicator first;
+        private final Indicator second;
+
+        public Chain(Indicator first, Indicator second)
+        {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public double update(double value)
+        {
+            first.update(value);
+            return feedSecond();
+        }
+
+        @Override
+        public double update(double high, double low, double close, long volume)
+        {
+            first.update(high, low, close, volume);
+            return feedSecond();
+        }
+
+        private double feedSecond()
+        {
+            if (first.isReady())
+                second.update(first.getValue());
+
+            return second.getValue();
+        }
+
+        @Override
+        public double getValue()
+        {
+            return second.getValue();
+        }
+
+        @Override
+        public boolean isReady()
+        {
+            return second.isReady();
+        }
+
+        @Override
+        public void reset()
+        {
+            first.reset();
+            second.reset();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+//MovingAverageConvergenceDivergence
+//MACD: the fast EMA minus the slow EMA (the MACD line), an EMA of that line (the signal line), and their
+//difference (the histogram). The value is the MACD line, ready once the slow EMA is; the signal line and
+//histogram are ready signal bars later.
+
+public class MovingAverageConvergenceDivergence implements Indicator
+{
+	private final ExponentialMovingAverage fast;
+    private final ExponentialMovingAverage slow;
+    private final ExponentialMovingAverage signal;
+    private double value = Double.NaN;
+
+    // The usual 12/26/9 MACD
+    public MovingAverageConvergenceDivergence()
+    {
+        this(12, 26, 9);
+    }
+
+    // MACD with the given fast, slow and signal periods
+    public MovingAverageConvergenceDivergence(int fastPeriod, int slowPeriod, int signalPeriod)
+    {
+        if (fastPeriod >= slowPeriod)
+            throw new IllegalArgumentException("Fast period must be shorter than slow period.");
+
+        this.fast = new ExponentialMovingAverage(fastPeriod);
+        this.slow = new ExponentialMovingAverage(slowPeriod);
+        this.signal = new ExponentialMovingAverage(signalPeriod);
+    }
+
+    // Getters
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isReady() {
+        return slow.isReady();
+    }
+
+    // Signal line (NaN until ready)
+    public double getSignal() {
+        return signal.getValue();
+    }
+
+    // MACD line minus signal line (NaN until the signal line is ready)
+    public double getHistogram() {
+        return value - signal.getValue();
+    }
+
+    @Override
+    public double update(double x)
+    {
+        fast.update(x);
+        slow.update(x);
+
+        if (slow.isReady())
+        {
+            value = fast.getValue() - slow.getValue();
+            signal.update(value);
+        }
+
+        return value;
+    }
+
+    @Override
+    public void reset()
+    {
+        fast.reset();
+        slow.reset();
+        signal.reset();
+        value = Double.NaN;
+    }
+}
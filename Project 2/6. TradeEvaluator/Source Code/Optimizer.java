@@ -0,0 +1,437 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Optimizer
+//Parameter sweep for a strategy: every combination of a grid of parameter values (or a seeded random sample
+//of them) is backtested, in parallel on the fork/join pool. All the backtests read the same bar store and
+//each builds its own strategy, so nothing is shared but the read-only bars. The report ranks the finished
+//runs by return, by Sharpe ratio and by drawdown, listing runs that ended the same way only once. cancel()
+//stops the sweep early; the report then covers the runs that finished.
+
+public final class Optimizer
+{
+	// Candidates run one after another in each task
+    private static final int BATCH_SIZE = 16;
+
+    // Builds a strategy from one candidate's parameter values (in the order of the parameters).
+    // Combinations that make no sense throw IllegalArgumentException and are skipped
+    public interface StrategyFactory
+    {
+        Strategy create(double[] values);
+    }
+
+    // A parameter swept from min to max in steps
+    public static final class Parameter
+    {
+        private final String name;
+        private final double min;
+        private final double max;
+        private final double step;
+
+        public Parameter(String name, double min, double max, double step)
+        {
+            if (!(step > 0) || max < min)
+                throw new IllegalArgumentException("Invalid range for " + name);
+
+            this.name = name;
+            this.min = min;
+            this.max = max;
+            this.step = step;
+        }
+
+        // Getters
+
+        public String getName() {
+            return name;
+        }
+
+        // Number of values in the grid
+        public int getCount() {
+            return (int) Math.floor((max - min) / step + 1e-9) + 1;
+        }
+
+        // k-th value of the grid
+        public double getValue(int k) {
+            return min + k * step;
+        }
+    }
+
+    // One set of parameter values and its backtest result
+    public static final class Candidate
+    {
+        private final double[] values;
+        private final Backtest.Result result;
+
+        Candidate(double[] values, Backtest.Result result)
+        {
+            this.values = values;
+            this.result = result;
+        }
+
+        // Getters
+
+        public double[] getValues() {
+            return values.clone();
+        }
+
+        public Backtest.Result getResult() {
+            return result;
+        }
+    }
+
+    // Finished runs ranked three ways
+    public final class Report
+    {
+        private final List<Candidate> byReturn;
+        private final List<Candidate> bySharpe;
+        private final List<Candidate> byDrawdown;
+        private final int run;
+        private final int total;
+        private final boolean cancelled;
+
+        Report(List<Candidate> finished, int run, int total, boolean cancelled, int top)
+        {
+            this.run = run;
+            this.total = total;
+            this.cancelled = cancelled;
+
+            List<Candidate> sorted = new ArrayList<>(finished);
+            sorted.sort(Comparator.comparingDouble((Candidate c) -> c.result.getReturn()).reversed());
+            byReturn = best(sorted, top);
+
+            sorted.sort(Comparator.comparingDouble((Candidate c) -> c.result.getSharpeRatio()).reversed());
+            bySharpe = best(sorted, top);
+
+            // Runs that never bought have no drawdown, so only runs that traded are ranked by it
+            sorted.removeIf(c -> c.result.getBuys() == 0);
+            sorted.sort(Comparator.comparingDouble((Candidate c) -> c.result.getMaxDrawdown())
+                    .thenComparing(Comparator.comparingDouble((Candidate c) -> c.result.getReturn()).reversed()));
+            byDrawdown = best(sorted, top);
+        }
+
+        // The first top candidates of a ranking, skipping any that ended exactly like one already taken. Parameters
+        // that never come into play give the same trades, so the first of them (in grid order) stands for the rest
+        private List<Candidate> best(List<Candidate> sorted, int top)
+        {
+            List<Candidate> best = new ArrayList<>();
+
+            for (Candidate candidate : sorted)
+            {
+                if (best.size() == top)
+                    break;
+
+                boolean repeated = false;
+                for (Candidate taken : best)
+                    repeated |= sameOutcome(candidate.result, taken.result);
+
+                if (!repeated)
+                    best.add(candidate);
+            }
+
+            return best;
+        }
+
+        private boolean sameOutcome(Backtest.Result a, Backtest.Result b)
+        {
+            return a.getBuys() == b.getBuys() && a.getSells() == b.getSells() && a.getFinalShares() == b.getFinalShares()
+                    && a.getFinalBalance() == b.getFinalBalance() && a.getSharpeRatio() == b.getSharpeRatio()
+                    && a.getMaxDrawdown() == b.getMaxDrawdown();
+        }
+
+        // Getters
+
+        public List<Candidate> getBestByReturn() {
+            return byReturn;
+        }
+
+        public List<Candidate> getBestBySharpe() {
+            return bySharpe;
+        }
+
+        public List<Candidate> getBestByDrawdown() {
+            return byDrawdown;
+        }
+
+        // Number of candidates backtested (or skipped as invalid) before the sweep ended
+        public int getRun() {
+            return run;
+        }
+
+        // Number of candidates the sweep was given
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder text = new StringBuilder();
+            text.append(strategyName).append(": ").append(run).append(" of ").append(total).append(" candidates run")
+                .append(cancelled ? " (cancelled)" : "").append("\n");
+
+            append(text, "Best by return", byReturn);
+            append(text, "Best by Sharpe ratio", bySharpe);
+            append(text, "Best by drawdown", byDrawdown);
+
+            return text.toString();
+        }
+
+        private void append(StringBuilder text, String title, List<Candidate> candidates)
+        {
+            text.append("\n").append(title).append(":\n");
+
+            for (Candidate candidate : candidates)
+            {
+                Backtest.Result result = candidate.result;
+                text.append(String.format("  return %7.2f%%  sharpe %5.2f  drawdown %5.1f%%  trades %4d  ",
+                        result.getReturn() * 100, result.getSharpeRatio(), result.getMaxDrawdown() * 100, result.getBuys() + result.getSells()));
+                text.append(describe(candidate.values)).append("\n");
+            }
+        }
+    }
+
+    private final String strategyName;
+    private final StrategyFactory factory;
+    private final Parameter[] parameters;
+
+    // Set by cancel() and never cleared, and the candidates finished in the sweep that is running
+    private volatile boolean cancelled;
+    private final AtomicInteger completed = new AtomicInteger();
+
+    public Optimizer(String strategyName, StrategyFactory factory, Parameter... parameters)
+    {
+        this.strategyName = strategyName;
+        this.factory = factory;
+        this.parameters = parameters.clone();
+    }
+
+    // Sweep of the tunable constants of a registered strategy. The share cap is left at the strategy's default:
+    // at usual balances the cash runs out long before the cap, so sweeping it only repeated the same runs
+    public static Optimizer forStrategy(String name)
+    {
+        switch (name)
+        {
+            case "RSI + MA":
+            case "RSI (Wilder) + MA":
+                final int smoothing = name.contains("Wilder") ? RelativeStrengthIndex.WILDER : RelativeStrengthIndex.SIMPLE;
+                return new Optimizer(name, new StrategyFactory() {
+                    @Override
+                    public Strategy create(double[] v) {
+                        return new RsiMovingAverageStrategy(smoothing, v[0], v[1], (int) v[2], v[3], RsiMovingAverageStrategy.MAX_SHARES);
+                    }
+                },
+                        new Parameter("overbought", 60, 85, 5),
+                        new Parameter("oversold", 15, 40, 5),
+                        new Parameter("maPeriod", 5, 30, 5),
+                        new Parameter("maBuyThreshold", 0.0, 0.05, 0.01));
+            case "Trend Following":
+                return new Optimizer(name, new StrategyFactory() {
+                    @Override
+                    public Strategy create(double[] v) {
+                        return new TrendFollowingStrategy((int) v[0], (int) v[1], TrendFollowingStrategy.MAX_SHARES);
+                    }
+                },
+                        new Parameter("shortPeriod", 2, 20, 1),
+                        new Parameter("longPeriod", 10, 100, 5));
+            default:
+                throw new IllegalArgumentException("No parameters to optimize for " + name);
+        }
+    }
+
+    // Getters
+
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    // Candidates finished so far in the sweep that is running
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    // Stop the sweep that is running (or the next one, if called before it starts); candidates already
+    // started still finish. A cancelled optimizer stays cancelled, so make a new one for another sweep
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Every combination of the parameter grids
+    public List<double[]> grid()
+    {
+        long total = 1;
+        for (Parameter parameter : parameters)
+            total *= parameter.getCount();
+
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Grid is too large, use a random sample.");
+
+        List<double[]> candidates = new ArrayList<>((int) total);
+        int[] k = new int[parameters.length];
+
+        for (long n = 0; n < total; n++)
+        {
+            double[] values = new double[parameters.length];
+            for (int p = 0; p < parameters.length; p++)
+                values[p] = parameters[p].getValue(k[p]);
+            candidates.add(values);
+
+            // Count through the grid like an odometer
+            for (int p = parameters.length - 1; p >= 0 && ++k[p] == parameters[p].getCount(); p--)
+                k[p] = 0;
+        }
+
+        return candidates;
+    }
+
+    // count grid points picked at random (the same seed picks the same points)
+    public List<double[]> random(int count, long seed)
+    {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<double[]> candidates = new ArrayList<>(count);
+
+        for (int n = 0; n < count; n++)
+        {
+            double[] values = new double[parameters.length];
+            for (int p = 0; p < parameters.length; p++)
+                values[p] = parameters[p].getValue(random.nextInt(parameters[p].getCount()));
+            candidates.add(values);
+        }
+
+        return candidates;
+    }
+
+    // Backtest every candidate in parallel and report the best top of each ranking
+    public Report run(Backtest backtest, List<double[]> candidates, int top)
+    {
+        completed.set(0);
+
+        // A cancel that came in before the sweep started (like a click while the worker was queued) still counts
+        Candidate[] finished = new Candidate[candidates.size()];
+        if (!cancelled)
+            ForkJoinPool.commonPool().invoke(new SweepTask(backtest, candidates, finished, 0, candidates.size()));
+
+        List<Candidate> results = new ArrayList<>();
+        for (Candidate candidate : finished)
+            if (candidate != null)
+                results.add(candidate);
+
+        return new Report(results, completed.get(), candidates.size(), cancelled, top);
+    }
+
+    // Parameter names and values of a candidate
+    public String describe(double[] values)
+    {
+        StringBuilder text = new StringBuilder();
+
+        for (int p = 0; p < parameters.length; p++)
+        {
+            if (p > 0)
+                text.append(", ");
+
+            double value = values[p];
+            text.append(parameters[p].getName()).append("=")
+                .append(value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.4f", value));
+        }
+
+        return text.toString();
+    }
+
+    // Runs candidates [from, to), splitting in half down to BATCH_SIZE
+    private final class SweepTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Backtest backtest;
+        private final List<double[]> candidates;
+        private final Candidate[] finished;
+        private final int from;
+        private final int to;
+
+        SweepTask(Backtest backtest, List<double[]> candidates, Candidate[] finished, int from, int to)
+        {
+            this.backtest = backtest;
+            this.candidates = candidates;
+            this.finished = finished;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > BATCH_SIZE)
+            {
+                int mid = from + (to - from) / 2;
+                invokeAll(new SweepTask(backtest, candidates, finished, from, mid),
+                        new SweepTask(backtest, candidates, finished, mid, to));
+                return;
+            }
+
+            for (int i = from; i < to && !cancelled; i++)
+            {
+                double[] values = candidates.get(i);
+                Strategy strategy = null;
+
+                // Only building the strategy may reject a candidate; errors in the backtest itself are not hidden
+                try
+                {
+                    strategy = factory.create(values);
+                } catch (IllegalArgumentException e) {
+                    // Combination that makes no sense (like oversold above overbought)
+                }
+
+                if (strategy != null)
+                    finished[i] = new Candidate(values, backtest.run(strategy));
+
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    // Batch run: Optimizer <csv file> <strategy name> [starting balance] [random <count> [seed]] (the full grid
+    // unless random is given)
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.out.println("Usage: java Optimizer <csv file> <strategy name> [starting balance] [random <count> [seed]]");
+            return;
+        }
+
+        BarStore bars = BarStore.read(args[0]);
+        Optimizer optimizer = forStrategy(args[1]);
+
+        int next = 2;
+        double startingBalance = 10000.0;
+        if (args.length > next && !args[next].equals("random"))
+            startingBalance = Double.parseDouble(args[next++]);
+
+        List<double[]> candidates;
+        if (args.length > next + 1 && args[next].equals("random"))
+        {
+            long seed = (args.length > next + 2) ? Long.parseLong(args[next + 2]) : 12345L;
+            candidates = optimizer.random(Integer.parseInt(args[next + 1]), seed);
+        }
+        else
+            candidates = optimizer.grid();
+
+        long start = System.nanoTime();
+        Report report = optimizer.run(new Backtest(bars, startingBalance), candidates, 5);
+        System.out.println(report);
+        System.out.println(candidates.size() + " backtests in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,164 @@
+import java.util.Arrays;
+
+//RelativeStrengthIndex
+//Streaming RSI: closing prices are pushed in one bar at a time and the RSI is updated in constant time, with
+//no allocation after construction. The average gain and loss over the period can be kept two ways:
+//    Simple - plain average of the last period price changes (kept with running sums over a ring buffer)
+//    Wilder - Wilder's smoothing: starts as the simple average of the first period changes, then each new
+//             change counts for 1/period of the average
+//The RSI is ready once period price changes have been seen (period + 1 closes).
+
+public class RelativeStrengthIndex implements Indicator
+{
+	// Ways of averaging the gains and losses
+    public static final int SIMPLE = 0;
+    public static final int WILDER = 1;
+
+    // Names of the averaging methods in the order of their constants, for the GUI
+    public static final String[] SMOOTHING_NAMES = { "Simple", "Wilder" };
+
+    // RSI given while there isn't enough data yet, or when prices haven't moved over the whole period
+    public static final double NEUTRAL = 50.0;
+
+    private final int period;
+    private final int smoothing;
+
+    // Last period gains and losses (simple averaging only) and the slot the next change goes in
+    private final double[] gains;
+    private final double[] losses;
+    private int slot;
+
+    // Running sums (simple) or current averages (Wilder)
+    private double gainSum;
+    private double lossSum;
+    private double averageGain;
+    private double averageLoss;
+
+    private double previousClose;
+    private boolean hasPrevious;
+    private long changes;
+    private double value = NEUTRAL;
+
+    // RSI over period bars with the given averaging method
+    public RelativeStrengthIndex(int period, int smoothing)
+    {
+        if (period < 1)
+            throw new IllegalArgumentException("Period must be at least 1.");
+
+        if (smoothing != SIMPLE && smoothing != WILDER)
+            throw new IllegalArgumentException("Unknown smoothing: " + smoothing);
+
+        this.period = period;
+        this.smoothing = smoothing;
+        this.gains = new double[period];
+        this.losses = new double[period];
+    }
+
+    // Getters
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public int getSmoothing() {
+        return smoothing;
+    }
+
+    // Whether period price changes have been seen, so the RSI means something
+    @Override
+    public boolean isReady() {
+        return changes >= period;
+    }
+
+    // Current RSI (NEUTRAL until ready)
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    // Add the next closing price and return the updated RSI
+    @Override
+    public double update(double close)
+    {
+        // The first close only sets the price the first change is measured from
+        if (!hasPrevious)
+        {
+            hasPrevious = true;
+            previousClose = close;
+            return value;
+        }
+
+        double change = close - previousClose;
+        double gain = (change > 0) ? change : 0.0;
+        double loss = (change < 0) ? -change : 0.0;
+        previousClose = close;
+        changes++;
+
+        if (smoothing == SIMPLE || changes <= period)
+            addToWindow(gain, loss);
+
+        if (changes < period)
+            return value;
+
+        if (smoothing == SIMPLE || changes == period)
+        {
+            averageGain = gainSum / period;
+            averageLoss = lossSum / period;
+        }
+        else
+        {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+
+        value = rsi(averageGain, averageLoss);
+        return value;
+    }
+
+    // Start over with no prices seen
+    @Override
+    public void reset()
+    {
+        Arrays.fill(gains, 0.0);
+        Arrays.fill(losses, 0.0);
+        slot = 0;
+        gainSum = 0.0;
+        lossSum = 0.0;
+        averageGain = 0.0;
+        averageLoss = 0.0;
+        changes = 0;
+        hasPrevious = false;
+        value = NEUTRAL;
+    }
+
+    // Replace the oldest change in the ring with the new one and keep the sums up to date
+    private void addToWindow(double gain, double loss)
+    {
+        gainSum += gain - gains[slot];
+        lossSum += loss - losses[slot];
+        gains[slot] = gain;
+        losses[slot] = loss;
+
+        // Add the window up again once per lap so rounding from the running sums can't build up
+        if (++slot == period)
+        {
+            slot = 0;
+            gainSum = 0.0;
+            lossSum = 0.0;
+            for (int i = 0; i < period; i++)
+            {
+                gainSum += gains[i];
+                lossSum += losses[i];
+            }
+        }
+    }
+
+    // RSI from the average gain and loss
+    public static double rsi(double averageGain, double averageLoss)
+    {
+        if (averageLoss == 0.0)
+            return (averageGain == 0.0) ? NEUTRAL : 100.0;
+
+        return 100.0 - 100.0 / (1.0 + averageGain / averageLoss);
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+//RollingStandardDeviation
+//Population standard deviation (and mean) of the last period values. The mean and the sum of squared
+//differences from it are slid along with each value (Welford's update for one value in and one out), which
+//stays accurate where a running sum of squares would cancel, and they are added up afresh once per lap.
+
+public class RollingStandardDeviation implements Indicator
+{
+	private final double[] window;
+    private int slot;
+    private long count;
+    private double mean;
+    private double squares;
+    private double value = Double.NaN;
+
+    // Standard deviation over period values
+    public RollingStandardDeviation(int period)
+    {
+        if (period < 1)
+            throw new IllegalArgumentException("Period must be at least 1.");
+
+        this.window = new double[period];
+    }
+
+    // Getters
+
+    public int getPeriod() {
+        return window.length;
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    // Mean of the window (NaN until ready)
+    public double getMean() {
+        return isReady() ? mean : Double.NaN;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= window.length;
+    }
+
+    @Override
+    public double update(double x)
+    {
+        int n = window.length;
+
+        if (count < n)
+        {
+            // Still filling the window: plain Welford update
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            squares += delta * (x - mean);
+        }
+        else
+        {
+            // One value in, the oldest out
+            count++;
+            double old = window[slot];
+            double oldMean = mean;
+            mean += (x - old) / n;
+            squares += (x - old) * (x - mean + old - oldMean);
+        }
+
+        window[slot] = x;
+
+        if (++slot == n)
+        {
+            slot = 0;
+            resum();
+        }
+
+        if (isReady())
+            value = Math.sqrt(Math.max(0.0, squares / n));
+
+        return value;
+    }
+
+    // Two-pass mean and squared differences of the full window
+    private void resum()
+    {
+        double sum = 0.0;
+        for (double w : window)
+            sum += w;
+        mean = sum / window.length;
+
+        squares = 0.0;
+        for (double w : window)
+            squares += (w - mean) * (w - mean);
+    }
+
+    @Override
+    public void reset()
+    {
+        Arrays.fill(window, 0.0);
+        slot = 0;
+        count = 0;
+        mean = 0.0;
+        squares = 0.0;
+        value = Double.NaN;
+    }
+}
@@ -0,0 +1,85 @@
+//RsiMovingAverageStrategy
+//Sells when the RSI says the stock is overbought, buys when it says oversold, and also buys when the price
+//drops a set fraction below its moving average. Each trade is capped at a number of shares.
+
+public class RsiMovingAverageStrategy implements Strategy
+{
+	// Default settings
+    public static final double OVERBOUGHT = 70.0;
+    public static final double OVERSOLD = 30.0;
+    public static final int MA_PERIOD = 10;
+    public static final double MA_BUY_THRESHOLD = 0.02;
+    public static final int MAX_SHARES = 1000;
+
+    private final double overbought;
+    private final double oversold;
+    private final double maBuyThreshold;
+    private final int maxShares;
+
+    private final RelativeStrengthIndex rsi;
+    private final SimpleMovingAverage ma;
+
+    // Default settings with a 14-day RSI using the given averaging (RelativeStrengthIndex.SIMPLE or WILDER)
+    public RsiMovingAverageStrategy(int rsiSmoothing)
+    {
+        this(rsiSmoothing, OVERBOUGHT, OVERSOLD, MA_PERIOD, MA_BUY_THRESHOLD, MAX_SHARES);
+    }
+
+    // Every setting given
+    public RsiMovingAverageStrategy(int rsiSmoothing, double overbought, double oversold, int maPeriod, double maBuyThreshold, int maxShares)
+    {
+        if (oversold > overbought)
+            throw new IllegalArgumentException("Oversold threshold must not be above overbought threshold.");
+
+        if (maxShares < 1)
+            throw new IllegalArgumentException("Max shares must be at least 1.");
+
+        this.overbought = overbought;
+        this.oversold = oversold;
+        this.maBuyThreshold = maBuyThreshold;
+        this.maxShares = maxShares;
+        this.rsi = new RelativeStrengthIndex(14, rsiSmoothing);
+        this.ma = new SimpleMovingAverage(maPeriod);
+    }
+
+    @Override
+    public String getName()
+    {
+        return (rsi.getSmoothing() == RelativeStrengthIndex.WILDER) ? "RSI (Wilder) + MA" : "RSI + MA";
+    }
+
+    @Override
+    public Indicator[] getIndicators()
+    {
+        return new Indicator[] { rsi, ma };
+    }
+
+    @Override
+    public int onBar(BarStore bars, int day, double balance, int shares)
+    {
+        double close = bars.getClose(day);
+
+        // If RSI is higher than threshold
+        if (rsi.getValue() > overbought && shares > 0) 
+        {
+            return -Math.min(shares, maxShares);
+        } 
+        // If RSI is less than threshold
+        else if (rsi.getValue() < oversold && balance > 0) 
+        {
+            int maxSharesToBuy = (int) (balance / close);
+            return Math.min(maxSharesToBuy, maxShares);
+        } 
+        // If MA is ready (NaN fails the comparison) and the closing price is far enough below it
+        else if (ma.getValue() > 0 && close < (1 - maBuyThreshold) * ma.getValue() && balance > 0)
+        {
+            int maxSharesToBuy = (int) (balance / close);
+            return Math.min(maxSharesToBuy, maxShares);
+        } 
+        // Nothing
+        else
+        {
+            return 0;
+        }
+    }
+}
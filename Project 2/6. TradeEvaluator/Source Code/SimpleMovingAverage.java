@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+//SimpleMovingAverage
+//Average of the last period values, kept as a running sum over a ring buffer so each update is constant time.
+
+public class SimpleMovingAverage implements Indicator
+{
+	private final double[] window;
+    private int slot;
+    private long count;
+    private double sum;
+    private double value = Double.NaN;
+
+    // Average over period values
+    public SimpleMovingAverage(int period)
+    {
+        if (period < 1)
+            throw new IllegalArgumentException("Period must be at least 1.");
+
+        this.window = new double[period];
+    }
+
+    // Getters
+
+    public int getPeriod() {
+        return window.length;
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= window.length;
+    }
+
+    @Override
+    public double update(double x)
+    {
+        sum += x - window[slot];
+        window[slot] = x;
+        count++;
+
+        // Add the window up again once per lap so rounding from the running sum can't build up
+        if (++slot == window.length)
+        {
+            slot = 0;
+            sum = 0.0;
+            for (double w : window)
+                sum += w;
+        }
+
+        if (isReady())
+            value = sum / window.length;
+
+        return value;
+    }
+
+    @Override
+    public void reset()
+    {
+        Arrays.fill(window, 0.0);
+        slot = 0;
+        count = 0;
+        sum = 0.0;
+        value = Double.NaN;
+    }
+}
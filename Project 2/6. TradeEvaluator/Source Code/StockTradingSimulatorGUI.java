@@ -2,11 +2,9 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 //Chris Ricchi
 //12-1-23
@@ -19,7 +17,13 @@ public class StockTradingSimulatorGUI extends JFrame
     private JTextArea logTextArea;
     private JTextField balanceTextField;
     private JComboBox<String> heuristicComboBox;
-    private List<StockData> loadedStockDataList;
+    private BarStore loadedBars;
+
+    // Parameter sweep controls and the sweep that is running (if any)
+    private JButton optimizeButton;
+    private JButton cancelOptimizeButton;
+    private JLabel optimizeStatusLabel;
+    private Optimizer runningOptimizer;
 
     // Constructor to initialize GUI
     public StockTradingSimulatorGUI() 
@@ -57,8 +61,8 @@ public class StockTradingSimulatorGUI extends JFrame
         topPanel.add(balanceTextField);
 
         JLabel heuristicLabel = new JLabel("Heuristic:");
-        String[] heuristicOptions = {"RSI + MA", "Buy and Hold", "Trend Following"};
-        heuristicComboBox = new JComboBox<>(heuristicOptions);
+        // Every registered strategy is listed
+        heuristicComboBox = new JComboBox<>(Strategies.getNames());
         topPanel.add(heuristicLabel);
         topPanel.add(heuristicComboBox);
 
@@ -66,8 +70,31 @@ public class StockTradingSimulatorGUI extends JFrame
         beginEvaluationButton.addActionListener(new BeginEvaluationActionListener());
         topPanel.add(beginEvaluationButton);
 
-        // Add the top panel to the contentPane
-        contentPane.add(topPanel, BorderLayout.NORTH);
+        // Second row: sweep the selected strategy's parameters over the loaded data (on all cores)
+        JPanel optimizePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        optimizeButton = new JButton("Optimize Parameters");
+        optimizeButton.addActionListener(new OptimizeActionListener());
+        optimizePanel.add(optimizeButton);
+
+        cancelOptimizeButton = new JButton("Cancel");
+        cancelOptimizeButton.setEnabled(false);
+        cancelOptimizeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (runningOptimizer != null)
+                    runningOptimizer.cancel();
+            }
+        });
+        optimizePanel.add(cancelOptimizeButton);
+
+        optimizeStatusLabel = new JLabel("");
+        optimizePanel.add(optimizeStatusLabel);
+
+        // Add the top panels to the contentPane
+        JPanel northPanel = new JPanel(new GridLayout(2, 1));
+        northPanel.add(topPanel);
+        northPanel.add(optimizePanel);
+        contentPane.add(northPanel, BorderLayout.NORTH);
 
         // Create a panel for the log area to see the outputs
         logTextArea = new JTextArea();
@@ -91,13 +118,13 @@ public class StockTradingSimulatorGUI extends JFrame
             {
             	// Set file path to user selection
                 String filePath = fileChooser.getSelectedFile().getAbsolutePath();
-                loadedStockDataList = readStockData(filePath);
+                loadedBars = readStockData(filePath);
 
                 // Set the log to blank so it is a clean slate every run
                 logTextArea.setText("");
                 logTradeHeader();
                 logTextArea.append("Loaded CSV file: " + filePath + "\n");
-                logTextArea.append("Number of entries: " + loadedStockDataList.size() + "\n\n");
+                logTextArea.append("Number of entries: " + loadedBars.size() + "\n\n");
             }
         }
     }
@@ -111,10 +138,10 @@ public class StockTradingSimulatorGUI extends JFrame
             double startingBalance = Double.parseDouble(balanceTextField.getText());
 
             // Check if stock data is loaded
-            if (loadedStockDataList != null && !loadedStockDataList.isEmpty()) 
+            if (loadedBars != null && !loadedBars.isEmpty()) 
             {
             	logTextArea.setText("");
-                simulateTrading(loadedStockDataList, startingBalance);
+                simulateTrading(loadedBars, startingBalance);
             }
             // Make sure a CSV is loaded
             else 
@@ -124,247 +151,109 @@ public class StockTradingSimulatorGUI extends JFrame
         }
     }
 
-    // Method to read the stock data
-    private static List<StockData> readStockData(String filePath) 
-    {
-        List<StockData> stockDataList = new ArrayList<>();
-
-        // Attempt to read using BufferedReader
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) 
-        {
-            String line;
-            br.readLine();
-            
-            // While loop to continue while there is data to read
-            while ((line = br.readLine()) != null) 
-            {
-            	// Split the data by commas
-                String[] data = line.split(",");
-                
-                // Store the data in a new StockData object
-                StockData stockData = new StockData(data[0], Double.parseDouble(data[1]), Double.parseDouble(data[4]));
-                
-                // Add the new object into the arraylist of stockdata
-                stockDataList.add(stockData);
-            }
-            
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return stockDataList;
-    }
-
-    // Method to simulate the trading
-    private void simulateTrading(List<StockData> stockDataList, double startingBalance) 
+    // Method to sweep the selected strategy's parameters in the background and log the best sets
+    private class OptimizeActionListener implements ActionListener 
     {
-    	// Initialize counters and starting balance
-        double balance = startingBalance;
-        int shares = 0;
-        int numOfBuys = 0;
-        int numOfSells = 0;
-        int numOfHolds = 0;
-
-        // Use the heuristic from the combo box on the GUI
-        String selectedHeuristic = (String) heuristicComboBox.getSelectedItem();
-
-        // Loop through the stockData
-        for (StockData stockData : stockDataList) 
+        @Override
+        public void actionPerformed(ActionEvent e) 
         {
-            double rsi = calculateRSI(stockDataList, stockData);
-
-            // tradeDecision determines the amount of shares to buy. This will be altered by each heuristic
-            int tradeDecision;
-            
-            // Calculate the chosen heuristic on our stock list
-            if ("RSI + MA".equals(selectedHeuristic)) 
-            {
-                double ma = calculateMovingAverage(stockDataList, stockData, 10);
-                tradeDecision = tradeEvaluator(stockData, rsi, ma, balance, shares);
-            } 
-            else if ("Buy and Hold".equals(selectedHeuristic)) 
+            if (loadedBars == null || loadedBars.isEmpty()) 
             {
-                tradeDecision = buyAndHold(stockData, balance, shares);
-            } 
-            else if ("Trend Following".equals(selectedHeuristic)) 
-            {
-                tradeDecision = trendFollowing(stockData, stockDataList, balance, shares);
-            } 
-            else 
-            {
-                tradeDecision = 0;
+                logTextArea.setText("Error: Please load a CSV file before optimizing.\n");
+                return;
             }
 
-            // If trade decision is higher than 0 (buying)
-            if (tradeDecision > 0) 
+            final double startingBalance = Double.parseDouble(balanceTextField.getText());
+            final Optimizer optimizer;
+            try 
             {
-                int numberOfSharesToBuy = Math.min(tradeDecision, (int) (balance / stockData.getClose()));
-                balance -= numberOfSharesToBuy * stockData.getClose();
-                shares += numberOfSharesToBuy;
-                
-                // Log transaction
-                logTrade(stockData, numberOfSharesToBuy, "BUY");
-                numOfBuys++;
-            } 
-            // If trade decision is less than 0 (selling)
-            else if (tradeDecision < 0 && shares > 0) 
-            {
-                int numberOfSharesToSell = Math.min(-tradeDecision, shares);
-                balance += numberOfSharesToSell * stockData.getClose();
-                shares -= numberOfSharesToSell;
-                
-                // Log transaction
-                logTrade(stockData, numberOfSharesToSell, "SELL");
-                numOfSells++;
-            } 
-            else 
-            {
-            	// Do nothing
-                logTrade(stockData, 0, "HOLD");
-                numOfHolds++;
+                optimizer = Optimizer.forStrategy((String) heuristicComboBox.getSelectedItem());
+            } catch (IllegalArgumentException ex) {
+                logTextArea.setText("Error: " + ex.getMessage() + "\n");
+                return;
             }
-        }
-
-        // Calculate the value of remaining shares at the last closing price
-        double remainingSharesValue = shares * stockDataList.get(stockDataList.size() - 1).getClose();
 
-        // Log final balance, number of shares, profit, and trade counts
-        double profit = balance - startingBalance + remainingSharesValue;
-        
-        logTextArea.append("\nNumber of Buys: " + numOfBuys + "\n");
-        logTextArea.append("Number of Sells: " + numOfSells + "\n");
-        logTextArea.append("Number of Holds: " + numOfHolds + "\n");
-        logTextArea.append("Final Balance: $" + String.format("%.2f", balance) + "\n");
-        logTextArea.append("Final Shares: " + shares + "\n");
-        logTextArea.append("Total Profit: $" + String.format("%.2f", profit) + "\n");
-    }
-
-    // Method to calculate RSI
-    private double calculateRSI(List<StockData> stockDataList, StockData currentData) 
-    {
-        
-    	// Choosing a 14-day window
-    	int period = 14;
-        
-        if (stockDataList.indexOf(currentData) < period)
-            return 50.0;
-
-        // Create lists to keep track of gains and losses
-        List<Double> gains = new ArrayList<>();
-        List<Double> losses = new ArrayList<>();
-
-        // Loop through the data to keep track of gains and losses
-        for (int i = stockDataList.indexOf(currentData); i > stockDataList.indexOf(currentData) - period; i--) 
-        {
-            double priceDiff = stockDataList.get(i).getClose() - stockDataList.get(i - 1).getClose();
-            if (priceDiff >= 0) 
-            {
-                gains.add(priceDiff);
-                losses.add(0.0);
-            } else 
+            final List<double[]> candidates = optimizer.grid();
+            final BarStore bars = loadedBars;
+
+            runningOptimizer = optimizer;
+            optimizeButton.setEnabled(false);
+            cancelOptimizeButton.setEnabled(true);
+            logTextArea.setText("Optimizing " + optimizer.getStrategyName() + " over " + candidates.size() + " parameter sets...\n");
+
+            // Show how far the sweep has got a few times a second
+            final Timer progressTimer = new Timer(250, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    optimizeStatusLabel.setText(optimizer.getCompleted() + " of " + candidates.size());
+                }
+            });
+            progressTimer.start();
+
+            // The backtests run on the fork/join pool, off the event dispatch thread
+            new SwingWorker<Optimizer.Report, Void>() 
             {
-                gains.add(0.0);
-                losses.add(-priceDiff);
-            }
+                @Override
+                protected Optimizer.Report doInBackground() 
+                {
+                    return optimizer.run(new Backtest(bars, startingBalance), candidates, 5);
+                }
+
+                @Override
+                protected void done() 
+                {
+                    progressTimer.stop();
+                    runningOptimizer = null;
+                    optimizeButton.setEnabled(true);
+                    cancelOptimizeButton.setEnabled(false);
+                    optimizeStatusLabel.setText("");
+
+                    try 
+                    {
+                        logTextArea.append("\n" + get());
+                    } catch (InterruptedException | ExecutionException ex) {
+                        logTextArea.append("Error: optimization failed (" + ex.getMessage() + ")\n");
+                    }
+                }
+            }.execute();
         }
-
-        // Calculate average gain and average loss
-        double averageGain = gains.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double averageLoss = losses.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-
-        // Calculate RSI using the average gain and average loss
-        double rs = (averageGain == 0) ? 0 : averageGain / averageLoss;
-        return 100 - (100 / (1 + rs));
-    }
-
-    // Method to calculate moving average
-    private double calculateMovingAverage(List<StockData> stockDataList, StockData currentData, int period) 
-    {
-    	// Check period
-        if (stockDataList.indexOf(currentData) < period)
-            return 0.0;
-
-        double sum = 0.0;
-        
-        // Sum the closing prices
-        for (int i = stockDataList.indexOf(currentData); i > stockDataList.indexOf(currentData) - period; i--)
-            sum += stockDataList.get(i).getClose();
-
-        // Divide the sum by the period
-        return sum / period;
     }
 
-    // Method to determine shares to buy
-    private int tradeEvaluator(StockData stockData, double rsi, double ma, double balance, int shares) 
+    // Method to read the stock data
+    private static BarStore readStockData(String filePath) 
     {
-    	// Establish thresholds
-        double rsiOverboughtThreshold = 70.0;
-        double rsiOversoldThreshold = 30.0;
-        double maBuyThreshold = 0.02;
-
-        // If RSI is higher than threshold
-        if (rsi > rsiOverboughtThreshold && shares > 0) 
-        {
-            return -Math.min(shares, 1000);
-        } 
-        // If RSI is less than threshold
-        else if (rsi < rsiOversoldThreshold && balance > 0) 
-        {
-            int maxSharesToBuy = (int) (balance / stockData.getClose());
-            return Math.min(maxSharesToBuy, 1000);
-        } 
-        // If MA is greater than 0 and stock's closing price is less than RSI
-        else if (ma > 0 && stockData.getClose() < (1 - maBuyThreshold) * ma && balance > 0)
+        // Attempt to read into the columnar bar store (one array per column, no object per day)
+        try 
         {
-            int maxSharesToBuy = (int) (balance / stockData.getClose());
-            return Math.min(maxSharesToBuy, 1000);
-        } 
-        // Nothing
-        else
-        {
-            return 0;
+            return BarStore.read(filePath);
+            
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-    }
 
-    // Buy and hold heuristic
-    private int buyAndHold(StockData stockData, double balance, int shares) 
-    {
-    	// Buy shares and hold them the entire period
-        if (shares == 0 && balance > 0) 
-        {
-            int maxSharesToBuy = (int) (balance / stockData.getClose());
-            return Math.min(maxSharesToBuy, 1000);
-        } 
-        else 
-        {
-            return 0;
-        }
+        return new BarStore.Builder().build();
     }
 
-    // Trend Following heuristic
-    private int trendFollowing(StockData currentData, List<StockData> stockDataList, double balance, int shares)
+    // Method to simulate the trading with the strategy picked in the GUI (the backtest engine does the work)
+    private void simulateTrading(BarStore bars, double startingBalance) 
     {
-    	// Calculate a short-term MA and a long-term MA
-        double maShort = calculateMovingAverage(stockDataList, currentData, 5);
-        double maLong = calculateMovingAverage(stockDataList, currentData, 20);
+        Strategy strategy = Strategies.create((String) heuristicComboBox.getSelectedItem());
 
-        if (maShort > 0 && maLong > 0) 
-        {
-            if (maShort > maLong && shares == 0) 
-            {
-                // Buy if in an uptrend and not holding shares
-                int maxSharesToBuy = (int) (balance / currentData.getClose());
-                return Math.min(maxSharesToBuy, 1000);
-                
-            } 
-            else if (maShort < maLong && shares > 0) 
-            {
-                // Sell if in a downtrend and holding shares
-                return -Math.min(shares, 1000);
+        // Log every day's action as the engine goes
+        Backtest.Result result = new Backtest(bars, startingBalance).run(strategy, new Backtest.TradeListener() {
+            @Override
+            public void onTrade(BarStore bars, int day, String action, int shares) {
+                logTrade(bars, day, shares, action);
             }
-        }
-        
-        return 0;
+        });
+
+        // Log final balance, number of shares, profit, and trade counts
+        logTextArea.append("\nNumber of Buys: " + result.getBuys() + "\n");
+        logTextArea.append("Number of Sells: " + result.getSells() + "\n");
+        logTextArea.append("Number of Holds: " + result.getHolds() + "\n");
+        logTextArea.append("Final Balance: $" + String.format("%.2f", result.getFinalBalance()) + "\n");
+        logTextArea.append("Final Shares: " + result.getFinalShares() + "\n");
+        logTextArea.append("Total Profit: $" + String.format("%.2f", result.getProfit()) + "\n");
     }
 
     // Method to log the header of the output box in a formatted way
@@ -374,9 +263,9 @@ public class StockTradingSimulatorGUI extends JFrame
     }
 
     // Method to log a trade (keep formatted)
-    private void logTrade(StockData stockData, int numberOfShares, String action) 
+    private void logTrade(BarStore bars, int day, int numberOfShares, String action) 
     {
-        logTextArea.append(String.format("%-12s%-12s%-12d$%.2f%n", stockData.getDate(), action, numberOfShares, stockData.getClose()));
+        logTextArea.append(String.format("%-12s%-12s%-12d$%.2f%n", bars.getDate(day), action, numberOfShares, bars.getClose(day)));
     }
 
     // Main method
@@ -387,33 +276,3 @@ public class StockTradingSimulatorGUI extends JFrame
         });
     }
 }
-
-// Class to create StockData objects
-class StockData 
-{
-    private String date;
-    private double open;
-    private double close;
-
-    // Simple constructor
-    public StockData(String date, double open, double close) 
-    {
-        this.date = date;
-        this.open = open;
-        this.close = close;
-    }
-
-    // Getters and setters
-    
-    public String getDate() {
-        return date;
-    }
-
-    public double getOpen() {
-        return open;
-    }
-
-    public double getClose() {
-        return close;
-    }
-}
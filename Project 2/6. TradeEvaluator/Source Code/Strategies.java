@@ -0,0 +1,49 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+//Strategies
+//Registry of the strategies the GUI and batch jobs can pick by name. Each name maps to a factory that makes a
+//new strategy (strategies keep indicator state, so every run gets its own). New strategies are added with
+//register() and show up in the GUI's list.
+
+public final class Strategies
+{
+	// Factories by name, in the order they were registered
+    private static final Map<String, Supplier<Strategy>> FACTORIES = new LinkedHashMap<>();
+
+    static
+    {
+        register("RSI + MA", () -> new RsiMovingAverageStrategy(RelativeStrengthIndex.SIMPLE));
+        register("RSI (Wilder) + MA", () -> new RsiMovingAverageStrategy(RelativeStrengthIndex.WILDER));
+        register("Buy and Hold", BuyAndHoldStrategy::new);
+        register("Trend Following", TrendFollowingStrategy::new);
+    }
+
+    // Static helper class, no objects needed
+    private Strategies()
+    {
+    }
+
+    // Add a strategy (a name that is already registered gets the new factory)
+    public static synchronized void register(String name, Supplier<Strategy> factory)
+    {
+        FACTORIES.put(name, factory);
+    }
+
+    // Names of the registered strategies
+    public static synchronized String[] getNames()
+    {
+        return FACTORIES.keySet().toArray(new String[0]);
+    }
+
+    // New strategy of the given name
+    public static synchronized Strategy create(String name)
+    {
+        Supplier<Strategy> factory = FACTORIES.get(name);
+        if (factory == null)
+            throw new IllegalArgumentException("Unknown strategy: " + name);
+
+        return factory.get();
+    }
+}
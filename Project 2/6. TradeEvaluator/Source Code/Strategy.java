@@ -0,0 +1,17 @@
+//Strategy
+//A trading strategy for the backtest engine. The engine walks the bars in order; for each bar it first updates
+//the strategy's indicators with that bar, then asks the strategy how many shares to trade. Strategies only
+//decide, the engine does the buying and selling, so the same strategy runs in the GUI or in batch jobs.
+
+public interface Strategy
+{
+	// Name shown in the GUI and in reports
+    String getName();
+
+    // Indicators the engine updates with every bar before calling onBar (reset at the start of each run)
+    Indicator[] getIndicators();
+
+    // Shares to trade on this bar: more than 0 to buy, less than 0 to sell, 0 to hold.
+    // balance and shares are the cash and shares held before the trade
+    int onBar(BarStore bars, int day, double balance, int shares);
+}
@@ -0,0 +1,67 @@
+//TrendFollowingStrategy
+//Buys when a short moving average rises above a long one (an uptrend) and sells when it drops below it.
+
+public class TrendFollowingStrategy implements Strategy
+{
+	// Default settings
+    public static final int SHORT_PERIOD = 5;
+    public static final int LONG_PERIOD = 20;
+    public static final int MAX_SHARES = 1000;
+
+    private final SimpleMovingAverage maShort;
+    private final SimpleMovingAverage maLong;
+    private final int maxShares;
+
+    public TrendFollowingStrategy()
+    {
+        this(SHORT_PERIOD, LONG_PERIOD, MAX_SHARES);
+    }
+
+    public TrendFollowingStrategy(int shortPeriod, int longPeriod, int maxShares)
+    {
+        if (shortPeriod >= longPeriod)
+            throw new IllegalArgumentException("Short period must be shorter than long period.");
+
+        if (maxShares < 1)
+            throw new IllegalArgumentException("Max shares must be at least 1.");
+
+        this.maShort = new SimpleMovingAverage(shortPeriod);
+        this.maLong = new SimpleMovingAverage(longPeriod);
+        this.maxShares = maxShares;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Trend Following";
+    }
+
+    @Override
+    public Indicator[] getIndicators()
+    {
+        return new Indicator[] { maShort, maLong };
+    }
+
+    @Override
+    public int onBar(BarStore bars, int day, double balance, int shares)
+    {
+    	// Compare the short-term MA with the long-term MA (both NaN until they have a full window)
+        if (maShort.getValue() > 0 && maLong.getValue() > 0) 
+        {
+            if (maShort.getValue() > maLong.getValue() && shares == 0) 
+            {
+                // Buy if in an uptrend and not holding shares
+                int maxSharesToBuy = (int) (balance / bars.getClose(day));
+                return Math.min(maxSharesToBuy, maxShares);
+                
+            } 
+            else if (maShort.getValue() < maLong.getValue() && shares > 0) 
+            {
+                // Sell if in a downtrend and holding shares
+                return -Math.min(shares, maxShares);
+            }
+        }
+        
+        return 0;
+    }
+}
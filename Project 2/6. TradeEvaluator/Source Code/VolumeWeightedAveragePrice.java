@@ -0,0 +1,101 @@
+import java.util.Arrays;
+
+//VolumeWeightedAveragePrice
+//VWAP: average of the typical price (high + low + close) / 3 weighted by volume. It either runs over every
+//bar since the last reset (call reset at the start of each session) or over the last period bars, kept as
+//running sums over a ring buffer. Fed single values, each value counts as a bar with a volume of 1.
+
+public class VolumeWeightedAveragePrice implements Indicator
+{
+	// Price times volume and volume of the last period bars (rolling only)
+    private final double[] priceVolumes;
+    private final long[] volumes;
+    private int slot;
+    private long count;
+
+    private double priceVolumeSum;
+    private long volumeSum;
+    private double value = Double.NaN;
+
+    // VWAP over every bar since the last reset
+    public VolumeWeightedAveragePrice()
+    {
+        this.priceVolumes = null;
+        this.volumes = null;
+    }
+
+    // VWAP over the last period bars
+    public VolumeWeightedAveragePrice(int period)
+    {
+        if (period < 1)
+            throw new IllegalArgumentException("Period must be at least 1.");
+
+        this.priceVolumes = new double[period];
+        this.volumes = new long[period];
+    }
+
+    // Getters
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    // Cumulative VWAP is ready once any volume has traded, rolling VWAP once its window has filled
+    @Override
+    public boolean isReady() {
+        return volumeSum > 0 && (volumes == null || count >= volumes.length);
+    }
+
+    @Override
+    public double update(double x)
+    {
+        return update(x, x, x, 1);
+    }
+
+    @Override
+    public double update(double high, double low, double close, long volume)
+    {
+        double priceVolume = (high + low + close) / 3.0 * volume;
+        priceVolumeSum += priceVolume;
+        volumeSum += volume;
+        count++;
+
+        if (volumes != null)
+        {
+            priceVolumeSum -= priceVolumes[slot];
+            volumeSum -= volumes[slot];
+            priceVolumes[slot] = priceVolume;
+            volumes[slot] = volume;
+
+            // Add the window up again once per lap so rounding from the running sum can't build up
+            if (++slot == volumes.length)
+            {
+                slot = 0;
+                priceVolumeSum = 0.0;
+                for (double pv : priceVolumes)
+                    priceVolumeSum += pv;
+            }
+        }
+
+        value = isReady() ? priceVolumeSum / volumeSum : Double.NaN;
+
+        return value;
+    }
+
+    @Override
+    public void reset()
+    {
+        if (volumes != null)
+        {
+            Arrays.fill(priceVolumes, 0.0);
+            Arrays.fill(volumes, 0L);
+        }
+
+        slot = 0;
+        count = 0;
+        priceVolumeSum = 0.0;
+        volumeSum = 0;
+        value = Double.NaN;
+    }
+}